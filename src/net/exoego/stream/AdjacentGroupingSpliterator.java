@@ -0,0 +1,76 @@
+package net.exoego.stream;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * <p>Reduces each run of adjacent elements sharing a key, and emits the result as soon as the run ends.</p>
+ *
+ * <p>Only the accumulation of the current run and the first element of the next run are held, and the source is
+ * pulled no further than the end of the run being emitted.</p>
+ */
+final class AdjacentGroupingSpliterator<T, K, A, V, R> extends Spliterators.AbstractSpliterator<R> {
+    private final Spliterator<T> source;
+    private final Function<? super T, ? extends K> keyMapper;
+    private final Supplier<A> supplier;
+    private final BiConsumer<A, ? super T> accumulator;
+    private final Function<A, V> downstreamFinisher;
+    private final BiFunction<? super K, ? super V, ? extends R> finisher;
+    private final Consumer<T> puller = e -> this.pulled = e;
+    private T pulled;
+    private boolean hasPending;
+    private T pending;
+    private K pendingKey;
+
+    AdjacentGroupingSpliterator(final Spliterator<T> source,
+                                final Function<? super T, ? extends K> keyMapper,
+                                final Collector<? super T, A, V> downstream,
+                                final BiFunction<? super K, ? super V, ? extends R> finisher) {
+        super(source.estimateSize(), source.characteristics() & Spliterator.ORDERED);
+        this.source = source;
+        this.keyMapper = keyMapper;
+        this.supplier = downstream.supplier();
+        this.accumulator = downstream.accumulator();
+        this.downstreamFinisher = downstream.finisher();
+        this.finisher = finisher;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super R> action) {
+        if (!hasPending) {
+            if (!source.tryAdvance(puller)) {
+                return false;
+            }
+            pending = pulled;
+            pendingKey = keyMapper.apply(pulled);
+        }
+        final K key = pendingKey;
+        final A container = supplier.get();
+        accumulator.accept(container, pending);
+        hasPending = false;
+        while (source.tryAdvance(puller)) {
+            final K nextKey = keyMapper.apply(pulled);
+            if (!Objects.equals(key, nextKey)) {
+                hasPending = true;
+                pending = pulled;
+                pendingKey = nextKey;
+                break;
+            }
+            accumulator.accept(container, pulled);
+        }
+        pulled = null;
+        if (!hasPending) {
+            pending = null;
+            pendingKey = null;
+        }
+        action.accept(finisher.apply(key, downstreamFinisher.apply(container)));
+        return true;
+    }
+}
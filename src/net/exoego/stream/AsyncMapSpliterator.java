@@ -0,0 +1,202 @@
+package net.exoego.stream;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>Applies a function to the elements of a source on an {@code Executor}, keeping at most {@code maxConcurrency}
+ * applications in flight.</p>
+ *
+ * <p>The source is pulled only to refill the window after a result is taken, so a slow consumer holds back the
+ * source. In ordered mode the results are taken in encounter order; otherwise in completion order.</p>
+ *
+ * <p>Each application runs as a {@code FutureTask} handed to the executor, so cancelling it interrupts the thread
+ * running it, whichever executor that is.</p>
+ */
+final class AsyncMapSpliterator<T, R> extends Spliterators.AbstractSpliterator<R> {
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutor();
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    private final Spliterator<T> source;
+    private final Function<? super T, ? extends R> mapper;
+    private final int maxConcurrency;
+    private final boolean ordered;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Queue<FutureTask<R>> inFlight = new ArrayDeque<>();
+    private final BlockingQueue<FutureTask<R>> completed;
+    private final Consumer<T> submitter = this::submit;
+    private boolean sourceExhausted;
+
+    AsyncMapSpliterator(final Spliterator<T> source,
+                        final Function<? super T, ? extends R> mapper,
+                        final int maxConcurrency,
+                        final boolean ordered,
+                        final Executor executor) {
+        this(source,
+             mapper,
+             maxConcurrency,
+             ordered,
+             executor == null ? newDefaultExecutor(maxConcurrency) : executor,
+             executor == null);
+    }
+
+    private AsyncMapSpliterator(final Spliterator<T> source,
+                                final Function<? super T, ? extends R> mapper,
+                                final int maxConcurrency,
+                                final boolean ordered,
+                                final Executor executor,
+                                final boolean ownsExecutor) {
+        super(source.estimateSize(), ordered ? source.characteristics() & Spliterator.ORDERED : 0);
+        this.source = source;
+        this.mapper = mapper;
+        this.maxConcurrency = maxConcurrency;
+        this.ordered = ordered;
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.completed = ordered ? null : new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Same as the constructor, but the given executor is shut down as soon as the source is exhausted, an
+     * application fails or this is closed.
+     */
+    static <T, R> AsyncMapSpliterator<T, R> owning(final Spliterator<T> source,
+                                                   final Function<? super T, ? extends R> mapper,
+                                                   final int maxConcurrency,
+                                                   final boolean ordered,
+                                                   final ExecutorService executor) {
+        return new AsyncMapSpliterator<>(source, mapper, maxConcurrency, ordered, executor, true);
+    }
+
+    private static Method findVirtualThreadPerTaskExecutor() {
+        try {
+            return java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor if the runtime supports it, otherwise a pool of daemon threads
+     * which expire when idle, so that an abandoned stream does not leak threads.
+     */
+    private static ExecutorService newDefaultExecutor(final int maxConcurrency) {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // falls back to platform threads
+            }
+        }
+        final String prefix = "MoreStreams-mapAsync-" + POOL_SEQUENCE.incrementAndGet() + "-";
+        final AtomicInteger threadSequence = new AtomicInteger();
+        final ThreadFactory threadFactory = task -> {
+            final Thread thread = new Thread(task, prefix + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency,
+                                                               maxConcurrency,
+                                                               1L,
+                                                               TimeUnit.SECONDS,
+                                                               new LinkedBlockingQueue<>(),
+                                                               threadFactory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private void submit(final T e) {
+        final FutureTask<R> task;
+        if (ordered) {
+            task = new FutureTask<>(() -> mapper.apply(e));
+        } else {
+            task = new FutureTask<R>(() -> mapper.apply(e)) {
+                @Override
+                protected void done() {
+                    completed.add(this);
+                }
+            };
+        }
+        executor.execute(task);
+        inFlight.add(task);
+    }
+
+    private void fill() {
+        while (!sourceExhausted && inFlight.size() < maxConcurrency) {
+            if (!source.tryAdvance(submitter)) {
+                sourceExhausted = true;
+            }
+        }
+    }
+
+    private FutureTask<R> takeNext() throws InterruptedException {
+        if (ordered) {
+            return inFlight.poll();
+        }
+        final FutureTask<R> next = completed.take();
+        inFlight.remove(next);
+        return next;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super R> action) {
+        fill();
+        if (inFlight.isEmpty()) {
+            close();
+            return false;
+        }
+        final R result;
+        try {
+            result = takeNext().get();
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            close();
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+        fill();
+        action.accept(result);
+        return true;
+    }
+
+    /**
+     * Cancels all the applications in flight, interrupting those already running, and shuts down the executor if
+     * owned.
+     */
+    void close() {
+        sourceExhausted = true;
+        for (final FutureTask<R> task : inFlight) {
+            task.cancel(true);
+        }
+        inFlight.clear();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+}
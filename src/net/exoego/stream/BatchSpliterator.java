@@ -0,0 +1,66 @@
+package net.exoego.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>Fills consecutive batches of a fixed size from a source, reusing the buffers which handlers have released.</p>
+ *
+ * <p>A batch is an {@code ArrayList} of capacity {@code batchSize}, which goes back to the pool once
+ * {@link #recycling(Function)} has applied the handler to it. The number of buffers is therefore bounded by the
+ * number of batches in flight plus the one being filled.</p>
+ */
+final class BatchSpliterator<T> extends Spliterators.AbstractSpliterator<List<T>> {
+    private final Spliterator<T> source;
+    private final int batchSize;
+    private final Queue<ArrayList<T>> pool = new ConcurrentLinkedQueue<>();
+    private ArrayList<T> filling;
+    private final Consumer<T> appender = e -> filling.add(e);
+
+    BatchSpliterator(final Spliterator<T> source, final int batchSize) {
+        super(source.estimateSize() == Long.MAX_VALUE
+                      ? Long.MAX_VALUE
+                      : (source.estimateSize() + batchSize - 1) / batchSize,
+              (source.characteristics() & Spliterator.ORDERED) | Spliterator.NONNULL);
+        this.source = source;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super List<T>> action) {
+        final ArrayList<T> recycled = pool.poll();
+        filling = recycled != null ? recycled : new ArrayList<>(batchSize);
+        while (filling.size() < batchSize && source.tryAdvance(appender)) {
+            // appends to filling
+        }
+        final ArrayList<T> batch = filling;
+        filling = null;
+        if (batch.isEmpty()) {
+            pool.offer(batch);
+            return false;
+        }
+        action.accept(batch);
+        return true;
+    }
+
+    /**
+     * Returns a function which applies {@code handler} to a batch of this spliterator, then clears the batch and
+     * returns it to the pool.
+     */
+    <R> Function<List<T>, R> recycling(final Function<? super List<T>, ? extends R> handler) {
+        return batch -> {
+            try {
+                return handler.apply(batch);
+            } finally {
+                batch.clear();
+                pool.offer((ArrayList<T>) batch);
+            }
+        };
+    }
+}
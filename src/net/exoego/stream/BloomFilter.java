@@ -0,0 +1,54 @@
+package net.exoego.stream;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A concurrent Bloom filter over {@code hashCode}s or 64-bit hashes, whose bits are set lock-free in an
+ * {@code AtomicLongArray}. The {@code k} probes are derived from two hashes ({@code h1 + i * h2}).</p>
+ *
+ * <p>Keys with equal hashes set the same bits, so keys added by their 32-bit {@code hashCode} collide at a rate of
+ * about {@code n / 2^32} after {@code n} insertions, whatever the size of the filter.</p>
+ */
+final class BloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(final long expectedInsertions, final double fpp) {
+        final long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        final int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Adds the key, and returns true if it might not have been added before, i.e. any of its bits was clear.
+     */
+    boolean add(final Object key) {
+        return addHash(key == null ? 0 : key.hashCode());
+    }
+
+    /**
+     * Adds a key by its 64-bit hash, and returns true if it might not have been added before.
+     */
+    boolean addHash(final long hash) {
+        final long h = hash * 0x9E3779B97F4A7C15L;
+        final long h1 = h ^ (h >>> 29);
+        final long h2 = (h * 0xBF58476D1CE4E5B9L) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0) {
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+}
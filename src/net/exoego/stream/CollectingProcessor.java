@@ -0,0 +1,174 @@
+package net.exoego.stream;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * <p>A {@code Flow.Processor} which accumulates every {@code chunkSize} items into a fresh container of a
+ * {@code Collector}, and publishes the finished result of each chunk.</p>
+ *
+ * <p>Upstream demand is driven by downstream demand: one chunk is requested at a time, and the next one is
+ * requested only after the previous result has been delivered, so at most one finished result is waiting and the
+ * memory is bounded by a single container regardless of the length of the feed. When the upstream completes, the
+ * last partial chunk is published too; an empty feed publishes the result of an empty container.</p>
+ *
+ * <p>Signals to the subscriber are serialized by a work-in-progress counter, so they may be delivered on either the
+ * upstream thread or the thread requesting.</p>
+ */
+final class CollectingProcessor<T, A, R> implements Flow.Processor<T, R> {
+    private final Supplier<A> supplier;
+    private final BiConsumer<A, ? super T> accumulator;
+    private final Function<A, R> finisher;
+    private final long chunkSize;
+    private final Queue<R> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super R> downstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable error;
+    private volatile boolean cancelled;
+    private boolean started;
+    private boolean terminated;
+    private A container;
+    private long count;
+    private boolean produced;
+
+    CollectingProcessor(final Collector<? super T, A, R> collector, final int chunkSize) {
+        this.supplier = collector.supplier();
+        this.accumulator = collector.accumulator();
+        this.finisher = collector.finisher();
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super R> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber is null");
+        if (downstream != null) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("processor has already been subscribed"));
+            return;
+        }
+        downstream = subscriber;
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(final long n) {
+                if (n <= 0) {
+                    onError(new IllegalArgumentException("non-positive request: " + n));
+                    return;
+                }
+                while (true) {
+                    final long current = demand.get();
+                    final long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                    if (demand.compareAndSet(current, next)) {
+                        break;
+                    }
+                }
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                final Flow.Subscription s = upstream;
+                if (s != null) {
+                    s.cancel();
+                }
+            }
+        });
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        container = supplier.get();
+        upstream = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(final T item) {
+        accumulator.accept(container, item);
+        if (++count == chunkSize) {
+            finishChunk();
+            drain();
+        }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        error = throwable;
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        if (count > 0 || !produced) {
+            finishChunk();
+        }
+        upstreamDone = true;
+        drain();
+    }
+
+    private void finishChunk() {
+        final A finished = container;
+        container = supplier.get();
+        count = 0;
+        produced = true;
+        ready.offer(Objects.requireNonNull(finisher.apply(finished), "collector returned null"));
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            final Flow.Subscriber<? super R> subscriber = downstream;
+            if (subscriber != null && !cancelled && !terminated) {
+                if (!started && upstream != null) {
+                    started = true;
+                    upstream.request(chunkSize);
+                }
+                final Throwable failure = error;
+                if (failure != null) {
+                    terminated = true;
+                    ready.clear();
+                    subscriber.onError(failure);
+                } else {
+                    while (demand.get() > 0 && !ready.isEmpty()) {
+                        demand.decrementAndGet();
+                        subscriber.onNext(ready.poll());
+                        if (!upstreamDone) {
+                            upstream.request(chunkSize);
+                        }
+                    }
+                    if (upstreamDone && ready.isEmpty()) {
+                        terminated = true;
+                        subscriber.onComplete();
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -0,0 +1,202 @@
+package net.exoego.stream;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * <p>Java Flight Recorder events of the phases of a collector, and the wrapper which emits them.</p>
+ *
+ * <p>Each result container is wrapped in a {@link Container} which counts the elements accumulated into it. Events
+ * are only allocated when their type is enabled in a running recording; otherwise the wrapper costs a counter
+ * increment per element and a few enabled-checks per container.</p>
+ *
+ * @see MoreCollectors#recorded(Collector, String)
+ */
+final class CollectorEvents {
+    private static final EventType ACCUMULATE = EventType.getEventType(AccumulateEvent.class);
+    private static final EventType COMBINE = EventType.getEventType(CombineEvent.class);
+    private static final EventType FINISH = EventType.getEventType(FinishEvent.class);
+
+    private CollectorEvents() {}
+
+    @Name("net.exoego.stream.CollectorAccumulate")
+    @Label("Collector Accumulate")
+    @Category({"Java Application", "Streams"})
+    @Description("Accumulation of a batch of elements into one result container, e.g. by a parallel leaf task")
+    static final class AccumulateEvent extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Elements")
+        long elements;
+
+        @Label("Container Size")
+        @Description("Size of the container if it is a Map or a Collection, otherwise -1")
+        long containerSize;
+    }
+
+    @Name("net.exoego.stream.CollectorCombine")
+    @Label("Collector Combine")
+    @Category({"Java Application", "Streams"})
+    @Description("Merge of two partial result containers")
+    static final class CombineEvent extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Left Elements")
+        long leftElements;
+
+        @Label("Right Elements")
+        long rightElements;
+
+        @Label("Left Size")
+        long leftSize;
+
+        @Label("Right Size")
+        long rightSize;
+
+        @Label("Combined Size")
+        long combinedSize;
+    }
+
+    @Name("net.exoego.stream.CollectorFinish")
+    @Label("Collector Finish")
+    @Category({"Java Application", "Streams"})
+    @Description("Transformation of the final container into the result")
+    static final class FinishEvent extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Elements")
+        long elements;
+
+        @Label("Result Size")
+        @Description("Size of the result if it is a Map or a Collection, otherwise -1")
+        long resultSize;
+    }
+
+    /**
+     * A result container with the number of elements accumulated into it. The elements of a container shared by
+     * the threads of a concurrent collector are counted by a {@code LongAdder}, as a plain increment would lose
+     * updates.
+     */
+    static final class Container<A> {
+        A value;
+        long elements;
+        final LongAdder sharedElements;
+        AccumulateEvent event;
+
+        Container(final A value, final AccumulateEvent event, final boolean shared) {
+            this.value = value;
+            this.event = event;
+            this.sharedElements = shared ? new LongAdder() : null;
+        }
+
+        long elements() {
+            return sharedElements == null ? elements : elements + sharedElements.sum();
+        }
+
+        void commitAccumulate() {
+            final AccumulateEvent accumulate = event;
+            if (accumulate != null) {
+                event = null;
+                accumulate.end();
+                if (accumulate.shouldCommit()) {
+                    accumulate.elements = elements();
+                    accumulate.containerSize = sizeOf(value);
+                    accumulate.commit();
+                }
+            }
+        }
+    }
+
+    static long sizeOf(final Object o) {
+        if (o instanceof Map) {
+            return ((Map<?, ?>) o).size();
+        }
+        if (o instanceof Collection) {
+            return ((Collection<?>) o).size();
+        }
+        return -1;
+    }
+
+    static <T, A, R> Collector<T, Container<A>, R> record(final Collector<T, A, R> collector, final String stage) {
+        final Supplier<A> supplier = collector.supplier();
+        final BiConsumer<A, T> accumulator = collector.accumulator();
+        final BinaryOperator<A> combiner = collector.combiner();
+        final Function<A, R> finisher = collector.finisher();
+        final Set<Collector.Characteristics> characteristics = EnumSet.noneOf(Collector.Characteristics.class);
+        characteristics.addAll(collector.characteristics());
+        characteristics.remove(Collector.Characteristics.IDENTITY_FINISH);
+        final boolean concurrent = characteristics.contains(Collector.Characteristics.CONCURRENT);
+        final BiConsumer<Container<A>, T> counting = concurrent ? (container, e) -> {
+            container.sharedElements.increment();
+            accumulator.accept(container.value, e);
+        } : (container, e) -> {
+            container.elements++;
+            accumulator.accept(container.value, e);
+        };
+        return Collector.of(() -> {
+            if (!ACCUMULATE.isEnabled()) {
+                return new Container<>(supplier.get(), null, concurrent);
+            }
+            final AccumulateEvent event = new AccumulateEvent();
+            event.stage = stage;
+            event.begin();
+            return new Container<>(supplier.get(), event, concurrent);
+        }, counting, (left, right) -> {
+            left.commitAccumulate();
+            right.commitAccumulate();
+            if (!COMBINE.isEnabled()) {
+                left.value = combiner.apply(left.value, right.value);
+            } else {
+                final CombineEvent event = new CombineEvent();
+                event.leftSize = sizeOf(left.value);
+                event.rightSize = sizeOf(right.value);
+                event.begin();
+                left.value = combiner.apply(left.value, right.value);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.stage = stage;
+                    event.leftElements = left.elements();
+                    event.rightElements = right.elements();
+                    event.combinedSize = sizeOf(left.value);
+                    event.commit();
+                }
+            }
+            left.elements += right.elements();
+            return left;
+        }, container -> {
+            container.commitAccumulate();
+            if (!FINISH.isEnabled()) {
+                return finisher.apply(container.value);
+            }
+            final FinishEvent event = new FinishEvent();
+            event.begin();
+            final R result = finisher.apply(container.value);
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = stage;
+                event.elements = container.elements();
+                event.resultSize = sizeOf(result);
+                event.commit();
+            }
+            return result;
+        }, characteristics.toArray(new Collector.Characteristics[0]));
+    }
+}
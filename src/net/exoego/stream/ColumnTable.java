@@ -0,0 +1,250 @@
+package net.exoego.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * <p>An immutable struct-of-arrays table: each {@code int} or {@code double} column is a primitive array, and each
+ * key column is dictionary-encoded into an array of {@code int} codes plus the list of its distinct keys, in order
+ * of first appearance.</p>
+ *
+ * <p>Scanning a column reads one contiguous array instead of chasing a reference per row, and grouping by a key
+ * column aggregates into arrays indexed by code, without hashing or boxing.</p>
+ * <pre class="java"><code class="java">ColumnTable emps = stream.collect(toColumns(asList(Emp::age), asList(Emp::salary), asList(Emp::dept)));
+ *double total = emps.doubleColumn(0).sum();
+ *double[] salaryByDept = emps.sumDoubleBy(0, 0);   // indexed by the codes of emps.dictionary(0)</code></pre>
+ *
+ * @see MoreCollectors#toColumns(List, List, List)
+ */
+public final class ColumnTable {
+    private final int rows;
+    private final int[][] ints;
+    private final double[][] doubles;
+    private final int[][] codes;
+    private final List<List<Object>> dictionaries;
+
+    private ColumnTable(final Builder<?> builder) {
+        this.rows = builder.rows;
+        this.ints = builder.ints;
+        this.doubles = builder.doubles;
+        this.codes = builder.codes;
+        this.dictionaries = new ArrayList<>(builder.dictionaries.size());
+        for (final Dictionary dictionary : builder.dictionaries) {
+            dictionaries.add(CompactList.copyOf(dictionary.keys));
+        }
+    }
+
+    public int rowCount() {
+        return rows;
+    }
+
+    public int intColumnCount() {
+        return ints.length;
+    }
+
+    public int doubleColumnCount() {
+        return doubles.length;
+    }
+
+    public int keyColumnCount() {
+        return codes.length;
+    }
+
+    /**
+     * @param column the index of the {@code int} column.
+     * @return the values of the column in row order.
+     * @throws IndexOutOfBoundsException if there is no such column.
+     */
+    public IntStream intColumn(final int column) {
+        return Arrays.stream(ints[Objects.checkIndex(column, ints.length)], 0, rows);
+    }
+
+    /**
+     * @param column the index of the {@code double} column.
+     * @return the values of the column in row order.
+     * @throws IndexOutOfBoundsException if there is no such column.
+     */
+    public DoubleStream doubleColumn(final int column) {
+        return Arrays.stream(doubles[Objects.checkIndex(column, doubles.length)], 0, rows);
+    }
+
+    /**
+     * @param column the index of the key column.
+     * @return the dictionary codes of the column in row order, each of which is an index of
+     * {@link #dictionary(int)}.
+     * @throws IndexOutOfBoundsException if there is no such column.
+     */
+    public IntStream codes(final int column) {
+        return Arrays.stream(codes[Objects.checkIndex(column, codes.length)], 0, rows);
+    }
+
+    /**
+     * @param column the index of the key column.
+     * @return the distinct keys of the column in order of first appearance, indexed by code.
+     * @throws IndexOutOfBoundsException if there is no such column.
+     */
+    public List<Object> dictionary(final int column) {
+        return dictionaries.get(Objects.checkIndex(column, codes.length));
+    }
+
+    /**
+     * @param keyColumn the index of the key column.
+     * @return the number of rows of each key, indexed by code.
+     * @throws IndexOutOfBoundsException if there is no such column.
+     */
+    public long[] countBy(final int keyColumn) {
+        final int[] keyCodes = codes[Objects.checkIndex(keyColumn, codes.length)];
+        final long[] counts = new long[dictionaries.get(keyColumn).size()];
+        for (int r = 0; r < rows; r++) {
+            counts[keyCodes[r]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * @param keyColumn the index of the key column.
+     * @param intColumn the index of the {@code int} column to be summed.
+     * @return the sum of the {@code int} column of each key, indexed by code.
+     * @throws IndexOutOfBoundsException if there is no such column.
+     */
+    public long[] sumIntBy(final int keyColumn, final int intColumn) {
+        final int[] keyCodes = codes[Objects.checkIndex(keyColumn, codes.length)];
+        final int[] values = ints[Objects.checkIndex(intColumn, ints.length)];
+        final long[] sums = new long[dictionaries.get(keyColumn).size()];
+        for (int r = 0; r < rows; r++) {
+            sums[keyCodes[r]] += values[r];
+        }
+        return sums;
+    }
+
+    /**
+     * @param keyColumn    the index of the key column.
+     * @param doubleColumn the index of the {@code double} column to be summed.
+     * @return the sum of the {@code double} column of each key, indexed by code.
+     * @throws IndexOutOfBoundsException if there is no such column.
+     */
+    public double[] sumDoubleBy(final int keyColumn, final int doubleColumn) {
+        final int[] keyCodes = codes[Objects.checkIndex(keyColumn, codes.length)];
+        final double[] values = doubles[Objects.checkIndex(doubleColumn, doubles.length)];
+        final double[] sums = new double[dictionaries.get(keyColumn).size()];
+        for (int r = 0; r < rows; r++) {
+            sums[keyCodes[r]] += values[r];
+        }
+        return sums;
+    }
+
+    private static final class Dictionary {
+        final Map<Object, Integer> codes = new HashMap<>();
+        final List<Object> keys = new ArrayList<>();
+
+        int encode(final Object key) {
+            final Integer code = codes.get(key);
+            if (code != null) {
+                return code;
+            }
+            final int added = keys.size();
+            codes.put(key, added);
+            keys.add(key);
+            return added;
+        }
+    }
+
+    /**
+     * The mutable accumulation of {@link MoreCollectors#toColumns(List, List, List)}.
+     */
+    static final class Builder<T> {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final List<? extends ToIntFunction<? super T>> intMappers;
+        private final List<? extends ToDoubleFunction<? super T>> doubleMappers;
+        private final List<? extends Function<? super T, ?>> keyMappers;
+        private final List<Dictionary> dictionaries = new ArrayList<>();
+        private int[][] ints;
+        private double[][] doubles;
+        private int[][] codes;
+        private int rows;
+        private int capacity = INITIAL_CAPACITY;
+
+        Builder(final List<? extends ToIntFunction<? super T>> intMappers,
+                final List<? extends ToDoubleFunction<? super T>> doubleMappers,
+                final List<? extends Function<? super T, ?>> keyMappers) {
+            this.intMappers = intMappers;
+            this.doubleMappers = doubleMappers;
+            this.keyMappers = keyMappers;
+            this.ints = new int[intMappers.size()][INITIAL_CAPACITY];
+            this.doubles = new double[doubleMappers.size()][INITIAL_CAPACITY];
+            this.codes = new int[keyMappers.size()][INITIAL_CAPACITY];
+            for (int c = 0; c < keyMappers.size(); c++) {
+                dictionaries.add(new Dictionary());
+            }
+        }
+
+        private void ensureCapacity(final int required) {
+            if (required <= capacity) {
+                return;
+            }
+            capacity = Math.max(required, capacity * 2);
+            for (int c = 0; c < ints.length; c++) {
+                ints[c] = Arrays.copyOf(ints[c], capacity);
+            }
+            for (int c = 0; c < doubles.length; c++) {
+                doubles[c] = Arrays.copyOf(doubles[c], capacity);
+            }
+            for (int c = 0; c < codes.length; c++) {
+                codes[c] = Arrays.copyOf(codes[c], capacity);
+            }
+        }
+
+        void add(final T element) {
+            ensureCapacity(rows + 1);
+            for (int c = 0; c < ints.length; c++) {
+                ints[c][rows] = intMappers.get(c).applyAsInt(element);
+            }
+            for (int c = 0; c < doubles.length; c++) {
+                doubles[c][rows] = doubleMappers.get(c).applyAsDouble(element);
+            }
+            for (int c = 0; c < codes.length; c++) {
+                codes[c][rows] = dictionaries.get(c).encode(keyMappers.get(c).apply(element));
+            }
+            rows++;
+        }
+
+        Builder<T> append(final Builder<T> right) {
+            ensureCapacity(rows + right.rows);
+            for (int c = 0; c < ints.length; c++) {
+                System.arraycopy(right.ints[c], 0, ints[c], rows, right.rows);
+            }
+            for (int c = 0; c < doubles.length; c++) {
+                System.arraycopy(right.doubles[c], 0, doubles[c], rows, right.rows);
+            }
+            for (int c = 0; c < codes.length; c++) {
+                final Dictionary dictionary = dictionaries.get(c);
+                final List<Object> rightKeys = right.dictionaries.get(c).keys;
+                final int[] translation = new int[rightKeys.size()];
+                for (int code = 0; code < translation.length; code++) {
+                    translation[code] = dictionary.encode(rightKeys.get(code));
+                }
+                final int[] rightCodes = right.codes[c];
+                final int[] leftCodes = codes[c];
+                for (int r = 0; r < right.rows; r++) {
+                    leftCodes[rows + r] = translation[rightCodes[r]];
+                }
+            }
+            rows += right.rows;
+            return this;
+        }
+
+        ColumnTable build() {
+            return new ColumnTable(this);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package net.exoego.stream;
+
+import java.util.Objects;
+
+/**
+ * <p>Open-addressing hash index over a dense, exact-length array of distinct keys.</p>
+ *
+ * <p>The index is an {@code int[]} whose slots hold {@code position + 1} of a key (0 means an empty slot), probed
+ * linearly. It keeps at most half of the slots occupied and has no per-entry object, so a table of {@code n} keys
+ * retains {@code n} references plus at most {@code 4n} ints. Tiny tables have no index at all and are scanned
+ * linearly.</p>
+ */
+final class CompactHashing {
+    private static final int LINEAR_SCAN_THRESHOLD = 8;
+
+    private CompactHashing() {}
+
+    static int spread(final Object key) {
+        final int h = (key == null ? 0 : key.hashCode()) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Builds an index for the first {@code size} keys, which must be distinct, or returns null if the keys are few
+     * enough to be scanned linearly.
+     */
+    static int[] index(final Object[] keys, final int size) {
+        if (size <= LINEAR_SCAN_THRESHOLD) {
+            return null;
+        }
+        final int[] table = new int[Integer.highestOneBit(size - 1) << 2];
+        final int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = spread(keys[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        return table;
+    }
+
+    /**
+     * Returns the position of {@code key} in {@code keys}, or -1 if absent.
+     */
+    static int find(final int[] table, final Object[] keys, final int size, final Object key) {
+        if (table == null) {
+            for (int i = 0; i < size; i++) {
+                if (Objects.equals(keys[i], key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final int mask = table.length - 1;
+        for (int slot = spread(key) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            final int i = table[slot] - 1;
+            if (Objects.equals(keys[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,67 @@
+package net.exoego.stream;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * <p>An immutable {@code List} backed by an array of exactly its size, with neither spare capacity nor an
+ * unmodifiable wrapper on top of it.</p>
+ */
+final class CompactList<E> extends AbstractList<E> implements RandomAccess {
+    private static final CompactList<?> EMPTY = new CompactList<>(new Object[0]);
+
+    private final Object[] elements;
+
+    private CompactList(final Object[] elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Returns a list which takes the ownership of the given array, which must not be modified anymore.
+     */
+    @SuppressWarnings("unchecked")
+    static <E> List<E> wrap(final Object[] elements) {
+        return elements.length == 0 ? (List<E>) EMPTY : new CompactList<>(elements);
+    }
+
+    static <E> List<E> wrap(final Object[] elements, final int size) {
+        return wrap(size == elements.length ? elements : Arrays.copyOf(elements, size));
+    }
+
+    static <E> List<E> copyOf(final Collection<? extends E> collection) {
+        if (collection instanceof CompactList) {
+            @SuppressWarnings("unchecked")
+            final List<E> list = (List<E>) collection;
+            return list;
+        }
+        return wrap(collection.toArray());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index) {
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return elements.clone();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(final Consumer<? super E> action) {
+        for (final Object e : elements) {
+            action.accept((E) e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package net.exoego.stream;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>An immutable {@code Map} which keeps its keys and values in two parallel exact-length arrays, looked up through
+ * a {@link CompactHashing} index. No entry object is retained; entries are created only when the entry set is
+ * iterated. The iteration order is the order of the source map.</p>
+ */
+final class CompactMap<K, V> extends AbstractMap<K, V> {
+    private final Object[] keys;
+    private final Object[] values;
+    private final int[] index;
+
+    private CompactMap(final Object[] keys, final Object[] values) {
+        this.keys = keys;
+        this.values = values;
+        this.index = CompactHashing.index(keys, keys.length);
+    }
+
+    /**
+     * Returns a map of the given keys, which must be distinct, to the values at the same positions, without copying.
+     */
+    static <K, V> Map<K, V> wrap(final Object[] keys, final Object[] values) {
+        return new CompactMap<>(keys, values);
+    }
+
+    static <K, V> Map<K, V> copyOf(final Map<? extends K, ? extends V> map) {
+        if (map instanceof CompactMap) {
+            @SuppressWarnings("unchecked")
+            final Map<K, V> compact = (Map<K, V>) map;
+            return compact;
+        }
+        final Object[] keys = new Object[map.size()];
+        final Object[] values = new Object[keys.length];
+        int i = 0;
+        for (final Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+        return new CompactMap<>(keys, values);
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return CompactHashing.find(index, keys, keys.length, key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        final int i = CompactHashing.find(index, keys, keys.length, key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept((K) keys[i], (V) values[i]);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int cursor = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return cursor < keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<K, V> next() {
+                        if (cursor >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        final int i = cursor++;
+                        return new SimpleImmutableEntry<>((K) keys[i], (V) values[i]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+}
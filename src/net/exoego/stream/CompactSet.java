@@ -0,0 +1,70 @@
+package net.exoego.stream;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>An immutable {@code Set} which keeps its elements in an exact-length array, looked up through a
+ * {@link CompactHashing} index. The iteration order is the order of the source collection.</p>
+ */
+final class CompactSet<E> extends AbstractSet<E> {
+    private final Object[] elements;
+    private final int[] index;
+
+    private CompactSet(final Object[] elements) {
+        this.elements = elements;
+        this.index = CompactHashing.index(elements, elements.length);
+    }
+
+    static <E> Set<E> copyOf(final Collection<? extends E> collection) {
+        if (collection instanceof CompactSet) {
+            @SuppressWarnings("unchecked")
+            final Set<E> set = (Set<E>) collection;
+            return set;
+        }
+        final Collection<? extends E> distinct = collection instanceof Set
+                ? collection
+                : new LinkedHashSet<>(collection);
+        return new CompactSet<>(distinct.toArray());
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return CompactHashing.find(index, elements, elements.length, o) >= 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int cursor = 0;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < elements.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (cursor >= elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return (E) elements[cursor++];
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return elements.clone();
+    }
+}
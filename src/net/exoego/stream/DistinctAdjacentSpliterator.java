@@ -0,0 +1,49 @@
+package net.exoego.stream;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>Emits the first element of each run of adjacent elements sharing a key, holding only the key of the last
+ * emitted element.</p>
+ */
+final class DistinctAdjacentSpliterator<T, K> extends Spliterators.AbstractSpliterator<T> {
+    private final Spliterator<T> source;
+    private final Function<? super T, ? extends K> keyMapper;
+    private final Consumer<T> puller = e -> this.pulled = e;
+    private T pulled;
+    private boolean started;
+    private K lastKey;
+
+    DistinctAdjacentSpliterator(final Spliterator<T> source, final Function<? super T, ? extends K> keyMapper) {
+        super(source.estimateSize(), source.characteristics() & (Spliterator.ORDERED | Spliterator.SORTED
+                | Spliterator.NONNULL));
+        this.source = source;
+        this.keyMapper = keyMapper;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        while (source.tryAdvance(puller)) {
+            final T element = pulled;
+            pulled = null;
+            final K key = keyMapper.apply(element);
+            if (!started || !Objects.equals(lastKey, key)) {
+                started = true;
+                lastKey = key;
+                action.accept(element);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return source.getComparator();
+    }
+}
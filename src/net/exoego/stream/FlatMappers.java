@@ -3,7 +3,9 @@ package net.exoego.stream;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.DoubleBinaryOperator;
 import java.util.function.DoubleFunction;
 import java.util.function.Function;
@@ -77,4 +79,142 @@ public final class FlatMappers {
                 ? DoubleStream.of(biMapper.applyAsDouble(e, iterator.next()))
                 : DoubleStream.empty();
     }
+
+    /**
+     * <p>The {@code mapMulti} counterpart of {@link #zipper(Stream, BiFunction)}: pushes the result of
+     * {@code biMapper} directly downstream instead of wrapping it in a new {@code Stream} per element.</p>
+     * <pre class="java">Example:
+     * <code class="java">streamA.mapMulti(zipperMulti(streamB, (a, b) -&gt; a.foo(b));</code></pre>
+     *
+     * @param <A>      the type of the elements of the first sequence.
+     * @param <B>      the type of the elements of the second sequence.
+     * @param <R>      the type of the merged elements.
+     * @param second   The second sequence to be merged
+     * @param biMapper A function that specifies how to merge the elements from the two sequences.
+     * @return a {@code BiConsumer} for {@code Stream.mapMulti}, which pushes nothing once the second sequence is
+     * exhausted.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static <A, B, R> BiConsumer<A, Consumer<R>> zipperMulti(final Stream<B> second,
+                                                                   final BiFunction<A, B, R> biMapper) {
+        Objects.requireNonNull(second, "second is null");
+        Objects.requireNonNull(biMapper, "biMapper is null");
+        Iterator<B> iterator = second.iterator();
+        return (e, sink) -> {
+            if (iterator.hasNext()) {
+                sink.accept(biMapper.apply(e, iterator.next()));
+            }
+        };
+    }
+
+    /**
+     * <p>The {@code IntStream.mapMulti} counterpart of {@link #zipper(IntStream, IntBinaryOperator)}, which neither
+     * creates a stream nor boxes per element.</p>
+     *
+     * @param second   The second sequence to be merged
+     * @param biMapper A function that specifies how to merge the elements from the two sequences.
+     * @return an {@code IntMapMultiConsumer}, which pushes nothing once the second sequence is exhausted.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static IntStream.IntMapMultiConsumer zipperMulti(final IntStream second, final IntBinaryOperator biMapper) {
+        Objects.requireNonNull(second, "second is null");
+        Objects.requireNonNull(biMapper, "biMapper is null");
+        PrimitiveIterator.OfInt iterator = second.iterator();
+        return (e, sink) -> {
+            if (iterator.hasNext()) {
+                sink.accept(biMapper.applyAsInt(e, iterator.nextInt()));
+            }
+        };
+    }
+
+    /**
+     * <p>The {@code LongStream.mapMulti} counterpart of {@link #zipper(LongStream, LongBinaryOperator)}, which
+     * neither creates a stream nor boxes per element.</p>
+     *
+     * @param second   The second sequence to be merged
+     * @param biMapper A function that specifies how to merge the elements from the two sequences.
+     * @return a {@code LongMapMultiConsumer}, which pushes nothing once the second sequence is exhausted.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static LongStream.LongMapMultiConsumer zipperMulti(final LongStream second,
+                                                              final LongBinaryOperator biMapper) {
+        Objects.requireNonNull(second, "second is null");
+        Objects.requireNonNull(biMapper, "biMapper is null");
+        PrimitiveIterator.OfLong iterator = second.iterator();
+        return (e, sink) -> {
+            if (iterator.hasNext()) {
+                sink.accept(biMapper.applyAsLong(e, iterator.nextLong()));
+            }
+        };
+    }
+
+    /**
+     * <p>The {@code DoubleStream.mapMulti} counterpart of {@link #zipper(DoubleStream, DoubleBinaryOperator)},
+     * which neither creates a stream nor boxes per element.</p>
+     *
+     * @param second   The second sequence to be merged
+     * @param biMapper A function that specifies how to merge the elements from the two sequences.
+     * @return a {@code DoubleMapMultiConsumer}, which pushes nothing once the second sequence is exhausted.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static DoubleStream.DoubleMapMultiConsumer zipperMulti(final DoubleStream second,
+                                                                  final DoubleBinaryOperator biMapper) {
+        Objects.requireNonNull(second, "second is null");
+        Objects.requireNonNull(biMapper, "biMapper is null");
+        PrimitiveIterator.OfDouble iterator = second.iterator();
+        return (e, sink) -> {
+            if (iterator.hasNext()) {
+                sink.accept(biMapper.applyAsDouble(e, iterator.nextDouble()));
+            }
+        };
+    }
+
+    /**
+     * <p>The {@code mapMulti} counterpart of {@link #ofType(Class)}: pushes an element downstream if it is an
+     * instance of {@code givenType}.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;Number&gt; mixed = ...;
+     * Stream&lt;BigInteger&gt; filtered = mixed.mapMulti(ofTypeMulti(BigInteger.class));</code></pre>
+     *
+     * @param <T>       the type to filter by.
+     * @param givenType a Class instance to filter stream.
+     * @return a {@code BiConsumer} for {@code Stream.mapMulti}.
+     * @throws java.lang.NullPointerException if {@code givenType} is null
+     */
+    public static <T> BiConsumer<Object, Consumer<T>> ofTypeMulti(final Class<T> givenType) {
+        Objects.requireNonNull(givenType, "givenType is null");
+        return (e, sink) -> {
+            if (givenType.isInstance(e)) {
+                sink.accept(givenType.cast(e));
+            }
+        };
+    }
+
+    /**
+     * <p>Returns a {@code BiConsumer} for {@code Stream.mapMulti} which pushes every element of the
+     * {@code Iterable} returned by {@code expander} directly downstream, or nothing if it returns null.</p>
+     *
+     * <p>This is the general replacement of {@code flatMap(e -&gt; expander.apply(e).stream())}, without a new
+     * {@code Stream} per element.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;Emp&gt; all = depts.mapMulti(expand(Dept::members));</code></pre>
+     *
+     * @param <T>      the type of the input elements.
+     * @param <R>      the type of the output elements.
+     * @param expander a function which returns the 0..n outputs of an element.
+     * @return a {@code BiConsumer} for {@code Stream.mapMulti}.
+     * @throws java.lang.NullPointerException if {@code expander} is null
+     */
+    public static <T, R> BiConsumer<T, Consumer<R>> expand(
+            final Function<? super T, ? extends Iterable<? extends R>> expander) {
+        Objects.requireNonNull(expander, "expander is null");
+        return (e, sink) -> {
+            final Iterable<? extends R> outputs = expander.apply(e);
+            if (outputs != null) {
+                for (final R output : outputs) {
+                    sink.accept(output);
+                }
+            }
+        };
+    }
 }
@@ -0,0 +1,60 @@
+package net.exoego.stream;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * <p>Splits a source into consecutive chunks of a fixed size. Each chunk is an immutable {@link CompactList} whose
+ * array is exactly as long as the chunk. The buffer starts from the remaining size of the source when it is known,
+ * and grows by doubling otherwise.</p>
+ */
+final class GroupedSpliterator<T> extends Spliterators.AbstractSpliterator<List<T>> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Spliterator<T> source;
+    private final int groupSize;
+    private final Consumer<T> appender = this::append;
+    private Object[] buffer;
+    private int count;
+
+    GroupedSpliterator(final Spliterator<T> source, final int groupSize) {
+        super(estimateGroups(source.estimateSize(), groupSize),
+              (source.characteristics() & Spliterator.ORDERED) | Spliterator.NONNULL);
+        this.source = source;
+        this.groupSize = groupSize;
+    }
+
+    private static long estimateGroups(final long size, final int groupSize) {
+        return size == Long.MAX_VALUE ? Long.MAX_VALUE : (size + groupSize - 1) / groupSize;
+    }
+
+    private void append(final T e) {
+        if (count == buffer.length) {
+            buffer = Arrays.copyOf(buffer, (int) Math.min(groupSize, Math.max(2L * count, 1L)));
+        }
+        buffer[count++] = e;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super List<T>> action) {
+        final long remaining = source.hasCharacteristics(Spliterator.SIZED)
+                ? source.estimateSize()
+                : INITIAL_CAPACITY;
+        buffer = new Object[(int) Math.min(groupSize, remaining)];
+        count = 0;
+        while (count < groupSize && source.tryAdvance(appender)) {
+            // appends to buffer
+        }
+        if (count == 0) {
+            buffer = null;
+            return false;
+        }
+        final List<T> chunk = CompactList.wrap(buffer, count);
+        buffer = null;
+        action.accept(chunk);
+        return true;
+    }
+}
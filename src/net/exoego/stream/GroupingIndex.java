@@ -0,0 +1,306 @@
+package net.exoego.stream;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * <p>An immutable index of a snapshot of elements by key, which runs any number of downstream reductions over the
+ * groups without hashing the elements again.</p>
+ *
+ * <p>The index is laid out as compressed sparse rows: the distinct keys in order of first appearance, and for group
+ * {@code g} the positions {@code positions[offsets[g]]} to {@code positions[offsets[g + 1] - 1]} of its elements in
+ * the snapshot, in encounter order. Apart from the snapshot, it retains two {@code int}s per element and no object
+ * per group.</p>
+ * <pre class="java"><code class="java">GroupingIndex&lt;Emp, Dept&gt; byDept = GroupingIndex.of(emps, Emp::dept);
+ *Stream&lt;Entry&lt;Dept, Long&gt;&gt; headcount = byDept.toGroupedEntries(counting());
+ *Stream&lt;String&gt; report = byDept.groupingThenStreaming(averagingInt(Emp::salary), (dept, avg) -&gt; dept + ":" + avg);</code></pre>
+ *
+ * @param <T> the type of the elements.
+ * @param <K> the type of the keys.
+ * @see MoreCollectors#toGroupingIndex(Function)
+ */
+public final class GroupingIndex<T, K> {
+    private final Object[] elements;
+    private final Object[] keys;
+    private final int[] offsets;
+    private final int[] positions;
+    private final int[] keyIndex;
+
+    private GroupingIndex(final Object[] elements, final Function<? super T, ? extends K> keyMapper) {
+        this.elements = elements;
+        final int[] groupOf = new int[elements.length];
+        final Map<K, Integer> ids = new HashMap<>();
+        final List<K> distinct = new ArrayList<>();
+        for (int i = 0; i < elements.length; i++) {
+            @SuppressWarnings("unchecked")
+            final T element = (T) elements[i];
+            final K key = Objects.requireNonNull(keyMapper.apply(element), "element cannot be mapped to a null key");
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = distinct.size();
+                ids.put(key, id);
+                distinct.add(key);
+            }
+            groupOf[i] = id;
+        }
+        this.keys = distinct.toArray();
+        this.offsets = new int[keys.length + 1];
+        for (final int g : groupOf) {
+            offsets[g + 1]++;
+        }
+        for (int g = 0; g < keys.length; g++) {
+            offsets[g + 1] += offsets[g];
+        }
+        this.positions = new int[elements.length];
+        final int[] next = Arrays.copyOf(offsets, keys.length);
+        for (int i = 0; i < groupOf.length; i++) {
+            positions[next[groupOf[i]]++] = i;
+        }
+        this.keyIndex = CompactHashing.index(keys, keys.length);
+    }
+
+    /**
+     * Builds an index of a snapshot of the given elements by {@code keyMapper}.
+     *
+     * @param <T>       the type of the elements.
+     * @param <K>       the type of the keys.
+     * @param source    the elements to be indexed, which are copied.
+     * @param keyMapper a function to classify the elements.
+     * @return the index.
+     * @throws NullPointerException if any of arguments is null, or if an element is mapped to a null key.
+     */
+    public static <T, K> GroupingIndex<T, K> of(final Collection<? extends T> source,
+                                                final Function<? super T, ? extends K> keyMapper) {
+        Objects.requireNonNull(source, "source is null");
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        return new GroupingIndex<>(source.toArray(), keyMapper);
+    }
+
+    /**
+     * @return the number of the groups.
+     */
+    public int groupCount() {
+        return keys.length;
+    }
+
+    /**
+     * @return the number of the indexed elements.
+     */
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * Returns the elements of the given key in encounter order, or an empty list if there is none.
+     *
+     * @param key the key of the group.
+     * @return an immutable view of the elements of the group.
+     */
+    public List<T> group(final K key) {
+        final int g = CompactHashing.find(keyIndex, keys, keys.length, key);
+        return g < 0 ? CompactList.wrap(new Object[0]) : new Group(g);
+    }
+
+    private final class Group extends AbstractList<T> implements RandomAccess {
+        private final int from;
+        private final int to;
+
+        Group(final int g) {
+            this.from = offsets[g];
+            this.to = offsets[g + 1];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(final int index) {
+            Objects.checkIndex(index, to - from);
+            return (T) elements[positions[from + index]];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * Reduces each group with {@code downstream} and streams the entries of the groups in order of first appearance
+     * of the keys. Groups are reduced lazily, and in parallel if the returned stream is made parallel.
+     *
+     * @param <A>        the intermediate accumulation type of the downstream collector.
+     * @param <V>        the result type of the downstream reduction.
+     * @param downstream a {@code Collector} implementing the downstream reduction.
+     * @return a stream of the entries of the groups.
+     * @throws NullPointerException if downstream is null.
+     */
+    public <A, V> Stream<Entry<K, V>> toGroupedEntries(final Collector<? super T, A, V> downstream) {
+        return groupingThenStreaming(downstream, SimpleImmutableEntry::new);
+    }
+
+    /**
+     * Reduces each group with {@code downstream}, and streams the result of {@code finisher} for each group in order
+     * of first appearance of the keys. Groups are reduced lazily, and in parallel if the returned stream is made
+     * parallel.
+     *
+     * @param <A>        the intermediate accumulation type of the downstream collector.
+     * @param <V>        the result type of the downstream reduction.
+     * @param <R>        the type of the resulting elements.
+     * @param downstream a {@code Collector} implementing the downstream reduction.
+     * @param finisher   a function to be applied to the key and the reduced value of each group.
+     * @return a stream of the results of {@code finisher}.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    @SuppressWarnings("unchecked")
+    public <A, V, R> Stream<R> groupingThenStreaming(final Collector<? super T, A, V> downstream,
+                                                     final BiFunction<? super K, ? super V, ? extends R> finisher) {
+        Objects.requireNonNull(downstream, "downstream is null");
+        Objects.requireNonNull(finisher, "finisher is null");
+        final Supplier<A> supplier = downstream.supplier();
+        final BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+        final Function<A, V> downstreamFinisher = downstream.finisher();
+        return IntStream.range(0, keys.length).mapToObj(g -> {
+            final A container = supplier.get();
+            for (int p = offsets[g]; p < offsets[g + 1]; p++) {
+                accumulator.accept(container, (T) elements[positions[p]]);
+            }
+            return finisher.apply((K) keys[g], downstreamFinisher.apply(container));
+        });
+    }
+
+    /**
+     * <p>A size-bounded cache of indices, keyed by the identity and version of the source, and the identity of the
+     * key mapper.</p>
+     *
+     * <p>The source is referenced weakly, and an index is rebuilt when the caller passes a new version, e.g. a
+     * modification counter of the snapshot. When the cache is full, the least recently used index is evicted. The
+     * cache is thread-safe; an index may be built twice if two threads miss at the same time.</p>
+     * <pre class="java"><code class="java">static final GroupingIndex.Cache INDICES = new GroupingIndex.Cache(64);
+     *INDICES.get(snapshot, snapshotVersion, Emp::dept).toGroupedEntries(counting());</code></pre>
+     */
+    public static final class Cache {
+        private final ReferenceQueue<Object> cleared = new ReferenceQueue<>();
+        private final Map<Key, GroupingIndex<?, ?>> indices;
+
+        /**
+         * @param maxSize the maximum number of the cached indices.
+         * @throws IllegalArgumentException if maxSize is not positive.
+         */
+        public Cache(final int maxSize) {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("maxSize must be greater than 0.");
+            }
+            this.indices = new LinkedHashMap<Key, GroupingIndex<?, ?>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Entry<Key, GroupingIndex<?, ?>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        /**
+         * Returns the cached index of the given source, version and key mapper, building it if absent.
+         *
+         * @param <T>       the type of the elements.
+         * @param <K>       the type of the keys.
+         * @param source    the elements to be indexed.
+         * @param version   the version of the source, which must change whenever the source is modified.
+         * @param keyMapper a function to classify the elements, which is compared by identity.
+         * @return the index.
+         * @throws NullPointerException if any of arguments is null, or if an element is mapped to a null key.
+         */
+        @SuppressWarnings("unchecked")
+        public <T, K> GroupingIndex<T, K> get(final Collection<? extends T> source,
+                                              final long version,
+                                              final Function<? super T, ? extends K> keyMapper) {
+            Objects.requireNonNull(source, "source is null");
+            Objects.requireNonNull(keyMapper, "keyMapper is null");
+            final Key lookup = new Key(source, version, keyMapper, null);
+            synchronized (this) {
+                expungeCleared();
+                final GroupingIndex<?, ?> cached = indices.get(lookup);
+                if (cached != null) {
+                    return (GroupingIndex<T, K>) cached;
+                }
+            }
+            final GroupingIndex<T, K> index = GroupingIndex.of(source, keyMapper);
+            synchronized (this) {
+                indices.put(new Key(source, version, keyMapper, cleared), index);
+            }
+            return index;
+        }
+
+        /**
+         * @return the number of the cached indices.
+         */
+        public synchronized int size() {
+            expungeCleared();
+            return indices.size();
+        }
+
+        public synchronized void clear() {
+            indices.clear();
+        }
+
+        private void expungeCleared() {
+            for (Object ref; (ref = cleared.poll()) != null; ) {
+                indices.remove(ref);
+            }
+        }
+
+        private static final class Key extends WeakReference<Object> {
+            private final int hash;
+            private final long version;
+            private final Object keyMapper;
+
+            Key(final Object source, final long version, final Object keyMapper, final ReferenceQueue<Object> queue) {
+                super(source, queue);
+                this.hash = (System.identityHashCode(source) * 31 + Long.hashCode(version)) * 31
+                        + System.identityHashCode(keyMapper);
+                this.version = version;
+                this.keyMapper = keyMapper;
+            }
+
+            @Override
+            public boolean equals(final Object o) {
+                if (this == o) {
+                    return true;
+                }
+                if (!(o instanceof Key)) {
+                    return false;
+                }
+                final Key that = (Key) o;
+                final Object source = get();
+                return source != null
+                        && source == that.get()
+                        && version == that.version
+                        && keyMapper == that.keyMapper;
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.exoego.stream;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * <p>A spliterator which reports the elements and splits of another one to a {@link StageMetrics}.</p>
+ *
+ * <p>Bulk traversal counts elements in a local variable and is timed once, so only {@code tryAdvance} pays an
+ * increment of a striped counter per element.</p>
+ */
+final class InstrumentedSpliterator<T> implements Spliterator<T> {
+    private final Spliterator<T> source;
+    private final StageMetrics metrics;
+
+    InstrumentedSpliterator(final Spliterator<T> source, final StageMetrics metrics) {
+        this.source = source;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        final boolean advanced = source.tryAdvance(action);
+        if (advanced) {
+            metrics.recordElement();
+        }
+        return advanced;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super T> action) {
+        final long[] count = new long[1];
+        final long start = System.nanoTime();
+        try {
+            source.forEachRemaining(e -> {
+                count[0]++;
+                action.accept(e);
+            });
+        } finally {
+            metrics.recordTraversal(count[0], System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        final Spliterator<T> prefix = source.trySplit();
+        if (prefix == null) {
+            return null;
+        }
+        metrics.recordSplit();
+        return new InstrumentedSpliterator<>(prefix, metrics);
+    }
+
+    @Override
+    public long estimateSize() {
+        return source.estimateSize();
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return source.getExactSizeIfKnown();
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics();
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return source.getComparator();
+    }
+}
@@ -0,0 +1,177 @@
+package net.exoego.stream;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * <p>Splits a memory-mapped file into records terminated by a single-byte delimiter.</p>
+ *
+ * <p>A split point is the byte following the first delimiter after the middle of the range, so both halves start
+ * at a record boundary and have about the same number of bytes, whatever the lengths of the records are. The
+ * sizes are estimated in bytes, which is consistent across splits.</p>
+ */
+abstract class LineSpliterator<T> implements Spliterator<T> {
+    private static final byte CR = '\r';
+
+    final MappedRegion region;
+    final byte delimiter;
+    final boolean stripCR;
+    private long from;
+    private final long to;
+
+    LineSpliterator(final MappedRegion region,
+                    final byte delimiter,
+                    final boolean stripCR,
+                    final long from,
+                    final long to) {
+        this.region = region;
+        this.delimiter = delimiter;
+        this.stripCR = stripCR;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Returns the record of {@code length} bytes at {@code start}.
+     */
+    abstract T record(long start, int length);
+
+    abstract LineSpliterator<T> split(long from, long to);
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        if (from >= to) {
+            return false;
+        }
+        final long found = region.indexOf(delimiter, from, to);
+        final long end = found < 0 ? to : found;
+        long length = end - from;
+        if (stripCR && length > 0 && region.get(end - 1) == CR) {
+            length--;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("record at " + from + " is longer than 2GB");
+        }
+        final long start = from;
+        from = found < 0 ? to : found + 1;
+        action.accept(record(start, (int) length));
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (to - from < MappedRegion.MIN_SPLIT_BYTES) {
+            return null;
+        }
+        final long found = region.indexOf(delimiter, from + (to - from) / 2, to);
+        if (found < 0 || found + 1 >= to) {
+            return null;
+        }
+        final Spliterator<T> prefix = split(from, found + 1);
+        from = found + 1;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+    }
+
+    /**
+     * Decodes each record into a {@code String}, through a scratch array reused by the spliterator.
+     */
+    static final class Decoding extends LineSpliterator<String> {
+        private final Charset charset;
+        private byte[] scratch = new byte[128];
+
+        Decoding(final MappedRegion region,
+                 final byte delimiter,
+                 final boolean stripCR,
+                 final Charset charset,
+                 final long from,
+                 final long to) {
+            super(region, delimiter, stripCR, from, to);
+            this.charset = charset;
+        }
+
+        @Override
+        String record(final long start, final int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            region.get(start, scratch, 0, length);
+            return new String(scratch, 0, length, charset);
+        }
+
+        @Override
+        LineSpliterator<String> split(final long from, final long to) {
+            return new Decoding(region, delimiter, stripCR, charset, from, to);
+        }
+    }
+
+    /**
+     * Exposes each record as a view over the mapping, with one {@code char} per byte.
+     */
+    static final class Viewing extends LineSpliterator<CharSequence> {
+        Viewing(final MappedRegion region, final byte delimiter, final boolean stripCR, final long from, final long to) {
+            super(region, delimiter, stripCR, from, to);
+        }
+
+        @Override
+        CharSequence record(final long start, final int length) {
+            return new View(region, start, length);
+        }
+
+        @Override
+        LineSpliterator<CharSequence> split(final long from, final long to) {
+            return new Viewing(region, delimiter, stripCR, from, to);
+        }
+    }
+
+    private static final class View implements CharSequence {
+        private final MappedRegion region;
+        private final long start;
+        private final int length;
+
+        View(final MappedRegion region, final long start, final int length) {
+            this.region = region;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + " out of length " + length);
+            }
+            return (char) (region.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(final int begin, final int end) {
+            if (begin < 0 || end > length || begin > end) {
+                throw new IndexOutOfBoundsException("[" + begin + ", " + end + ") out of length " + length);
+            }
+            return new View(region, start + begin, end - begin);
+        }
+
+        @Override
+        public String toString() {
+            final byte[] bytes = new byte[length];
+            region.get(start, bytes, 0, length);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
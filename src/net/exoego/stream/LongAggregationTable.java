@@ -0,0 +1,90 @@
+package net.exoego.stream;
+
+import java.util.Map;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * <p>A mutable map from keys to {@code long}s for {@link LongReducer}s: keys and values are kept in two parallel
+ * arrays probed linearly, so that a key costs one reference and one {@code long}, and reducing into it allocates
+ * nothing.</p>
+ */
+final class LongAggregationTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final LongBinaryOperator operator;
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size;
+
+    LongAggregationTable(final LongBinaryOperator operator) {
+        this.operator = operator;
+    }
+
+    /**
+     * Merges {@code value} into the value of {@code key}, or sets it if the key is absent.
+     */
+    void merge(final Object key, final long value) {
+        final int mask = keys.length - 1;
+        int slot = CompactHashing.spread(key) & mask;
+        for (Object k; (k = keys[slot]) != null; slot = (slot + 1) & mask) {
+            if (k.equals(key)) {
+                values[slot] = operator.applyAsLong(values[slot], value);
+                return;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    /**
+     * Merges every value of {@code right}, whose elements follow those of this table, into this table.
+     */
+    LongAggregationTable mergeAll(final LongAggregationTable right) {
+        final Object[] rightKeys = right.keys;
+        final long[] rightValues = right.values;
+        for (int i = 0; i < rightKeys.length; i++) {
+            if (rightKeys[i] != null) {
+                merge(rightKeys[i], rightValues[i]);
+            }
+        }
+        return this;
+    }
+
+    private void resize() {
+        final Object[] oldKeys = keys;
+        final long[] oldValues = values;
+        keys = new Object[oldKeys.length * 2];
+        values = new long[keys.length];
+        final int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = CompactHashing.spread(oldKeys[i]) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Returns an immutable map of the keys to the boxed values.
+     */
+    <K> Map<K, Long> toMap() {
+        final Object[] compactKeys = new Object[size];
+        final Object[] compactValues = new Object[size];
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                compactKeys[j] = keys[i];
+                compactValues[j] = values[i];
+                j++;
+            }
+        }
+        return CompactMap.wrap(compactKeys, compactValues);
+    }
+}
@@ -0,0 +1,102 @@
+package net.exoego.stream;
+
+import java.util.Objects;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>An associative reduction of elements to a {@code long}: each element is mapped to a {@code long}, and the
+ * mapped values are merged by an associative operator.</p>
+ *
+ * <p>Unlike a downstream {@code Collector}, a reducer needs no mutable accumulator, so the grouping collectors which
+ * accept one keep a single {@code long} per key in a primitive array, without any per-key object or boxed
+ * intermediate.</p>
+ * <pre class="java"><code class="java">Map&lt;Dept, Long&gt; headcount = emps.stream().collect(toGroupedMap(Emp::dept, LongReducer.counting()));</code></pre>
+ *
+ * @param <T> the type of the input elements.
+ * @see MoreCollectors#toGroupedMap(java.util.function.Function, LongReducer)
+ * @see MoreCollectors#toGroupedEntries(java.util.function.Function, LongReducer)
+ */
+public final class LongReducer<T> {
+    private static final LongReducer<Object> COUNTING = new LongReducer<>(e -> 1L, Long::sum);
+
+    private final ToLongFunction<? super T> mapper;
+    private final LongBinaryOperator operator;
+
+    private LongReducer(final ToLongFunction<? super T> mapper, final LongBinaryOperator operator) {
+        this.mapper = mapper;
+        this.operator = operator;
+    }
+
+    /**
+     * Returns a reducer which maps each element by {@code mapper} and merges the mapped values by {@code operator},
+     * which must be associative.
+     *
+     * @param <T>      the type of the input elements.
+     * @param mapper   a function to extract a {@code long} from each element.
+     * @param operator an associative function to merge two values.
+     * @return a reducer.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static <T> LongReducer<T> of(final ToLongFunction<? super T> mapper, final LongBinaryOperator operator) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        Objects.requireNonNull(operator, "operator is null");
+        return new LongReducer<>(mapper, operator);
+    }
+
+    /**
+     * Returns a reducer which counts the elements, like {@link java.util.stream.Collectors#counting()}.
+     *
+     * @param <T> the type of the input elements.
+     * @return a reducer which counts the elements.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LongReducer<T> counting() {
+        return (LongReducer<T>) COUNTING;
+    }
+
+    /**
+     * Returns a reducer which sums the values of the elements, like
+     * {@link java.util.stream.Collectors#summingLong(ToLongFunction)}.
+     *
+     * @param <T>    the type of the input elements.
+     * @param mapper a function to extract a {@code long} from each element.
+     * @return a reducer which sums the values.
+     * @throws NullPointerException if mapper is null.
+     */
+    public static <T> LongReducer<T> summing(final ToLongFunction<? super T> mapper) {
+        return of(mapper, Long::sum);
+    }
+
+    /**
+     * Returns a reducer which takes the smallest value of the elements.
+     *
+     * @param <T>    the type of the input elements.
+     * @param mapper a function to extract a {@code long} from each element.
+     * @return a reducer which takes the smallest value.
+     * @throws NullPointerException if mapper is null.
+     */
+    public static <T> LongReducer<T> min(final ToLongFunction<? super T> mapper) {
+        return of(mapper, Math::min);
+    }
+
+    /**
+     * Returns a reducer which takes the largest value of the elements.
+     *
+     * @param <T>    the type of the input elements.
+     * @param mapper a function to extract a {@code long} from each element.
+     * @return a reducer which takes the largest value.
+     * @throws NullPointerException if mapper is null.
+     */
+    public static <T> LongReducer<T> max(final ToLongFunction<? super T> mapper) {
+        return of(mapper, Math::max);
+    }
+
+    long map(final T element) {
+        return mapper.applyAsLong(element);
+    }
+
+    LongBinaryOperator operator() {
+        return operator;
+    }
+}
@@ -0,0 +1,239 @@
+package net.exoego.stream;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>A tournament tree of losers over {@code k} sorted sources.</p>
+ *
+ * <p>The tree holds one head element per source. Internal node {@code n} keeps the source that lost the match played
+ * at {@code n}, and {@code tree[0]} keeps the overall winner, so replacing the winner's head needs exactly
+ * {@code ceil(log2 k)} comparisons along a single leaf-to-root path. Leaves are implicit: source {@code i} sits at
+ * node {@code i + k}.</p>
+ *
+ * <p>Exhausted sources lose against every live source, and ties are broken by the source index, which keeps the
+ * merge stable.</p>
+ */
+abstract class LoserTree {
+    private final int[] tree;
+    private final boolean[] exhausted;
+    private final int k;
+    private boolean initialized;
+
+    LoserTree(final int k) {
+        this.k = k;
+        this.tree = new int[Math.max(k, 1)];
+        this.exhausted = new boolean[k];
+    }
+
+    /**
+     * Moves the source {@code i} to its next element.
+     *
+     * @return false if the source has no more element.
+     */
+    abstract boolean advance(int i);
+
+    /**
+     * Compares the current heads of the two sources, both of which are not exhausted.
+     */
+    abstract int compareHeads(int i, int j);
+
+    /**
+     * Returns the source whose head is the smallest one, or -1 if all sources are exhausted.
+     */
+    final int winner() {
+        if (!initialized) {
+            initialized = true;
+            for (int i = 0; i < k; i++) {
+                exhausted[i] = !advance(i);
+            }
+            if (k > 0) {
+                tree[0] = build(1);
+            }
+        }
+        if (k == 0 || exhausted[tree[0]]) {
+            return -1;
+        }
+        return tree[0];
+    }
+
+    /**
+     * Consumes the head of the current winner and replays its path to the root.
+     */
+    final void pop() {
+        int winner = tree[0];
+        exhausted[winner] = !advance(winner);
+        for (int node = (winner + k) >>> 1; node > 0; node >>>= 1) {
+            final int loser = tree[node];
+            if (beats(loser, winner)) {
+                tree[node] = winner;
+                winner = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    private int build(final int node) {
+        if (node >= k) {
+            return node - k;
+        }
+        final int left = build(node << 1);
+        final int right = build((node << 1) + 1);
+        if (beats(left, right)) {
+            tree[node] = right;
+            return left;
+        }
+        tree[node] = left;
+        return right;
+    }
+
+    private boolean beats(final int i, final int j) {
+        if (exhausted[i] || exhausted[j]) {
+            return exhausted[i] == exhausted[j] ? i < j : exhausted[j];
+        }
+        final int c = compareHeads(i, j);
+        return c < 0 || (c == 0 && i < j);
+    }
+
+    private static long sumOfEstimates(final List<? extends Spliterator<?>> sources) {
+        long sum = 0;
+        for (final Spliterator<?> source : sources) {
+            sum += source.estimateSize();
+            if (sum < 0) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return sum;
+    }
+
+    static final class OfRef<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Spliterator<T>[] sources;
+        private final Object[] heads;
+        private final Consumer<T>[] sinks;
+        private final LoserTree tree;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        OfRef(final List<Spliterator<T>> sources, final Comparator<? super T> comparator) {
+            super(sumOfEstimates(sources), Spliterator.ORDERED);
+            this.sources = sources.toArray(new Spliterator[0]);
+            this.heads = new Object[this.sources.length];
+            this.sinks = new Consumer[this.sources.length];
+            for (int i = 0; i < sinks.length; i++) {
+                final int index = i;
+                sinks[i] = e -> heads[index] = e;
+            }
+            this.tree = new LoserTree(this.sources.length) {
+                @Override
+                boolean advance(final int i) {
+                    return OfRef.this.sources[i].tryAdvance(sinks[i]);
+                }
+
+                @Override
+                int compareHeads(final int i, final int j) {
+                    return comparator.compare((T) heads[i], (T) heads[j]);
+                }
+            };
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            final int winner = tree.winner();
+            if (winner < 0) {
+                return false;
+            }
+            final T head = (T) heads[winner];
+            heads[winner] = null;
+            tree.pop();
+            action.accept(head);
+            return true;
+        }
+    }
+
+    static final class OfInt extends Spliterators.AbstractIntSpliterator {
+        private final Spliterator.OfInt[] sources;
+        private final int[] heads;
+        private final IntConsumer[] sinks;
+        private final LoserTree tree;
+
+        OfInt(final List<Spliterator.OfInt> sources) {
+            super(sumOfEstimates(sources), Spliterator.ORDERED);
+            this.sources = sources.toArray(new Spliterator.OfInt[0]);
+            this.heads = new int[this.sources.length];
+            this.sinks = new IntConsumer[this.sources.length];
+            for (int i = 0; i < sinks.length; i++) {
+                final int index = i;
+                sinks[i] = e -> heads[index] = e;
+            }
+            this.tree = new LoserTree(this.sources.length) {
+                @Override
+                boolean advance(final int i) {
+                    return OfInt.this.sources[i].tryAdvance(sinks[i]);
+                }
+
+                @Override
+                int compareHeads(final int i, final int j) {
+                    return Integer.compare(heads[i], heads[j]);
+                }
+            };
+        }
+
+        @Override
+        public boolean tryAdvance(final IntConsumer action) {
+            final int winner = tree.winner();
+            if (winner < 0) {
+                return false;
+            }
+            final int head = heads[winner];
+            tree.pop();
+            action.accept(head);
+            return true;
+        }
+    }
+
+    static final class OfLong extends Spliterators.AbstractLongSpliterator {
+        private final Spliterator.OfLong[] sources;
+        private final long[] heads;
+        private final LongConsumer[] sinks;
+        private final LoserTree tree;
+
+        OfLong(final List<Spliterator.OfLong> sources) {
+            super(sumOfEstimates(sources), Spliterator.ORDERED);
+            this.sources = sources.toArray(new Spliterator.OfLong[0]);
+            this.heads = new long[this.sources.length];
+            this.sinks = new LongConsumer[this.sources.length];
+            for (int i = 0; i < sinks.length; i++) {
+                final int index = i;
+                sinks[i] = e -> heads[index] = e;
+            }
+            this.tree = new LoserTree(this.sources.length) {
+                @Override
+                boolean advance(final int i) {
+                    return OfLong.this.sources[i].tryAdvance(sinks[i]);
+                }
+
+                @Override
+                int compareHeads(final int i, final int j) {
+                    return Long.compare(heads[i], heads[j]);
+                }
+            };
+        }
+
+        @Override
+        public boolean tryAdvance(final LongConsumer action) {
+            final int winner = tree.winner();
+            if (winner < 0) {
+                return false;
+            }
+            final long head = heads[winner];
+            tree.pop();
+            action.accept(head);
+            return true;
+        }
+    }
+}
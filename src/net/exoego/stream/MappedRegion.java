@@ -0,0 +1,311 @@
+package net.exoego.stream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>A read-only memory mapping of a whole file.</p>
+ *
+ * <p>A single {@code MappedByteBuffer} cannot exceed 2GB, so the file is mapped as consecutive segments. The segment
+ * size is a multiple of the alignment given on mapping, so that an aligned element never straddles two segments and
+ * can be read with a single absolute get. Nothing is copied to the heap; the pages are loaded by the OS on
+ * access.</p>
+ */
+final class MappedRegion {
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    static final long MIN_SPLIT_BYTES = 1L << 16;
+
+    private final ByteBuffer[] segments;
+    private final long segmentBytes;
+    private final long size;
+
+    private MappedRegion(final ByteBuffer[] segments, final long segmentBytes, final long size) {
+        this.segments = segments;
+        this.segmentBytes = segmentBytes;
+        this.size = size;
+    }
+
+    static MappedRegion map(final Path path, final int alignment, final ByteOrder order) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final long segmentBytes = MAX_SEGMENT_BYTES / alignment * alignment;
+            final ByteBuffer[] segments = new ByteBuffer[(int) ((size + segmentBytes - 1) / segmentBytes)];
+            for (int i = 0; i < segments.length; i++) {
+                final long offset = i * segmentBytes;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(segmentBytes, size - offset))
+                                     .order(order);
+            }
+            return new MappedRegion(segments, segmentBytes, size);
+        }
+    }
+
+    /**
+     * Maps the file as an array of elements of {@code width} bytes.
+     *
+     * @throws IllegalArgumentException if the file size is not a multiple of {@code width}.
+     */
+    static MappedRegion mapElements(final Path path, final int width, final ByteOrder order) throws IOException {
+        final MappedRegion region = map(path, width, order);
+        if (region.size % width != 0) {
+            throw new IllegalArgumentException(String.format("size of %s (%d bytes) is not a multiple of %d bytes",
+                                                             path,
+                                                             region.size,
+                                                             width));
+        }
+        return region;
+    }
+
+    long size() {
+        return size;
+    }
+
+    byte get(final long position) {
+        return segments[(int) (position / segmentBytes)].get((int) (position % segmentBytes));
+    }
+
+    /**
+     * Copies {@code length} bytes from {@code position} into {@code dst}, across segments if needed.
+     */
+    void get(long position, final byte[] dst, int offset, int length) {
+        while (length > 0) {
+            final ByteBuffer segment = segments[(int) (position / segmentBytes)].duplicate();
+            final int from = (int) (position % segmentBytes);
+            final int n = Math.min(length, segment.limit() - from);
+            segment.position(from);
+            segment.get(dst, offset, n);
+            position += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Returns the position of the first {@code b} in {@code [from, to)}, or -1 if absent.
+     */
+    long indexOf(final byte b, long from, final long to) {
+        while (from < to) {
+            final ByteBuffer segment = segments[(int) (from / segmentBytes)];
+            final int start = (int) (from % segmentBytes);
+            final int end = (int) Math.min(segment.limit(), start + (to - from));
+            for (int i = start; i < end; i++) {
+                if (segment.get(i) == b) {
+                    return from + (i - start);
+                }
+            }
+            from += end - start;
+        }
+        return -1;
+    }
+
+    private abstract static class ElementSpliterator<S extends Spliterator<?>> {
+        final MappedRegion region;
+        final int width;
+        long index;
+        final long fence;
+
+        ElementSpliterator(final MappedRegion region, final int width, final long index, final long fence) {
+            this.region = region;
+            this.width = width;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        abstract S split(long from, long to);
+
+        public S trySplit() {
+            final long mid = (index + fence) >>> 1;
+            if ((mid - index) * width < MIN_SPLIT_BYTES) {
+                return null;
+            }
+            final S prefix = split(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE
+                    | Spliterator.NONNULL;
+        }
+
+        final ByteBuffer segment(final long position) {
+            return region.segments[(int) (position / region.segmentBytes)];
+        }
+
+        final int offset(final long position) {
+            return (int) (position % region.segmentBytes);
+        }
+    }
+
+    static final class IntSpliterator extends ElementSpliterator<Spliterator.OfInt> implements Spliterator.OfInt {
+        IntSpliterator(final MappedRegion region, final long index, final long fence) {
+            super(region, Integer.BYTES, index, fence);
+        }
+
+        @Override
+        Spliterator.OfInt split(final long from, final long to) {
+            return new IntSpliterator(region, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(final IntConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            final long position = index++ * Integer.BYTES;
+            action.accept(segment(position).getInt(offset(position)));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final IntConsumer action) {
+            long position = index * Integer.BYTES;
+            final long end = fence * Integer.BYTES;
+            while (position < end) {
+                final ByteBuffer segment = segment(position);
+                final int from = offset(position);
+                final int to = (int) Math.min(segment.limit(), from + (end - position));
+                for (int i = from; i < to; i += Integer.BYTES) {
+                    action.accept(segment.getInt(i));
+                }
+                position += to - from;
+            }
+            index = fence;
+        }
+    }
+
+    static final class LongSpliterator extends ElementSpliterator<Spliterator.OfLong> implements Spliterator.OfLong {
+        LongSpliterator(final MappedRegion region, final long index, final long fence) {
+            super(region, Long.BYTES, index, fence);
+        }
+
+        @Override
+        Spliterator.OfLong split(final long from, final long to) {
+            return new LongSpliterator(region, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(final LongConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            final long position = index++ * Long.BYTES;
+            action.accept(segment(position).getLong(offset(position)));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final LongConsumer action) {
+            long position = index * Long.BYTES;
+            final long end = fence * Long.BYTES;
+            while (position < end) {
+                final ByteBuffer segment = segment(position);
+                final int from = offset(position);
+                final int to = (int) Math.min(segment.limit(), from + (end - position));
+                for (int i = from; i < to; i += Long.BYTES) {
+                    action.accept(segment.getLong(i));
+                }
+                position += to - from;
+            }
+            index = fence;
+        }
+    }
+
+    static final class DoubleSpliterator extends ElementSpliterator<Spliterator.OfDouble>
+            implements Spliterator.OfDouble {
+        DoubleSpliterator(final MappedRegion region, final long index, final long fence) {
+            super(region, Double.BYTES, index, fence);
+        }
+
+        @Override
+        Spliterator.OfDouble split(final long from, final long to) {
+            return new DoubleSpliterator(region, from, to);
+        }
+
+        @Override
+        public boolean tryAdvance(final DoubleConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            final long position = index++ * Double.BYTES;
+            action.accept(segment(position).getDouble(offset(position)));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final DoubleConsumer action) {
+            long position = index * Double.BYTES;
+            final long end = fence * Double.BYTES;
+            while (position < end) {
+                final ByteBuffer segment = segment(position);
+                final int from = offset(position);
+                final int to = (int) Math.min(segment.limit(), from + (end - position));
+                for (int i = from; i < to; i += Double.BYTES) {
+                    action.accept(segment.getDouble(i));
+                }
+                position += to - from;
+            }
+            index = fence;
+        }
+    }
+
+    /**
+     * Decodes fixed-width records through a view of the mapping, one per segment and per spliterator, whose position
+     * and limit are moved to each record in turn.
+     */
+    static final class RecordSpliterator<T> extends ElementSpliterator<Spliterator<T>> implements Spliterator<T> {
+        private final Function<? super ByteBuffer, ? extends T> decoder;
+        private final ByteBuffer[] views;
+
+        RecordSpliterator(final MappedRegion region,
+                          final int recordSize,
+                          final Function<? super ByteBuffer, ? extends T> decoder,
+                          final long index,
+                          final long fence) {
+            super(region, recordSize, index, fence);
+            this.decoder = decoder;
+            this.views = new ByteBuffer[region.segments.length];
+        }
+
+        @Override
+        Spliterator<T> split(final long from, final long to) {
+            return new RecordSpliterator<>(region, width, decoder, from, to);
+        }
+
+        @Override
+        public int characteristics() {
+            return super.characteristics() & ~Spliterator.NONNULL;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super T> action) {
+            if (index >= fence) {
+                return false;
+            }
+            final long position = index++ * width;
+            final int segment = (int) (position / region.segmentBytes);
+            ByteBuffer view = views[segment];
+            if (view == null) {
+                view = region.segments[segment].duplicate().order(region.segments[segment].order());
+                views[segment] = view;
+            }
+            final int offset = offset(position);
+            view.limit(offset + width).position(offset);
+            action.accept(decoder.apply(view));
+            return true;
+        }
+    }
+}
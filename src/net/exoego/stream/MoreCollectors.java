@@ -1,13 +1,21 @@
 package net.exoego.stream;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
 import java.util.function.ToIntFunction;
@@ -38,6 +46,52 @@ public final class MoreCollectors {
         return Collectors.mapping(mapper, Collectors.toList());
     }
 
+    /**
+     * <p>Same as {@link #toListMapped(java.util.function.Function)}, but the resulting {@code List} is allocated with
+     * the given capacity, so that collecting up to {@code expectedSize} elements never resizes it.</p>
+     *
+     * <p>This is meant for sequential streams. In a parallel stream every leaf task allocates a list of the full
+     * capacity, so up to the number of leaves times {@code expectedSize} is allocated.</p>
+     *
+     * @param mapper       a function to be applied to the input elements.
+     * @param expectedSize the expected number of the input elements.
+     * @param <T>          the type of the input elements.
+     * @param <R>          the type of elements accepted by list.
+     * @return a {@code Collector} which collects all the input elements into a presized {@code List},
+     * with applying a mapper {@code Function} to each elements, in encounter order.
+     * @throws java.lang.NullPointerException     if mapper is null.
+     * @throws java.lang.IllegalArgumentException if expectedSize is negative.
+     */
+    public static <T, R> Collector<T, ?, List<R>> toListMapped(final Function<? super T, ? extends R> mapper,
+                                                               final int expectedSize) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        requireNonNegative(expectedSize);
+        return Collector.of(() -> new ArrayList<>(expectedSize), (List<R> list, T e) -> list.add(mapper.apply(e)),
+                            (left, right) -> {
+                                left.addAll(right);
+                                return left;
+                            });
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that collects all the input elements into an immutable {@code List},
+     * with applying a mapper {@code Function} to each elements, in encounter order.</p>
+     *
+     * <p>The resulting list is backed by an array of exactly its size, without any spare capacity or wrapper, which
+     * suits lists retained for a long time.</p>
+     *
+     * @param mapper a function to be applied to the input elements.
+     * @param <T>    the type of the input elements.
+     * @param <R>    the type of elements accepted by list.
+     * @return a {@code Collector} which collects all the input elements into an immutable {@code List}.
+     * @throws java.lang.NullPointerException if mapper is null.
+     * @see MoreStreams#toImmutableList(java.util.stream.Stream, java.util.function.Function)
+     */
+    public static <T, R> Collector<T, ?, List<R>> toImmutableListMapped(final Function<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        return Collectors.collectingAndThen(toListMapped(mapper), CompactList::copyOf);
+    }
+
     /**
      * <p>Safer shortcut of {@code Collectors.mapping(mapper, Collectors.toSet())}</p>
      *
@@ -49,11 +103,59 @@ public final class MoreCollectors {
      * @throws java.lang.NullPointerException if mapper is null.
      * @see Collectors#mapping(java.util.function.Function, java.util.stream.Collector)
      */
-    public static <T, R> Collector<T, ?, Set<R>> toSetMapped(final Function<T, R> mapper) {
+    public static <T, R> Collector<T, ?, Set<R>> toSetMapped(final Function<? super T, ? extends R> mapper) {
         Objects.requireNonNull(mapper, "mapper is null");
         return Collectors.mapping(mapper, Collectors.toSet());
     }
 
+    /**
+     * <p>Same as {@link #toSetMapped(java.util.function.Function)}, but the resulting {@code Set} is allocated with
+     * enough capacity to hold {@code expectedSize} elements without rehashing.</p>
+     *
+     * <p>This is meant for sequential streams, as each leaf task of a parallel stream allocates a set of the full
+     * capacity.</p>
+     *
+     * @param mapper       a function to be applied to the input elements.
+     * @param expectedSize the expected number of the distinct mapped elements.
+     * @param <T>          the type of the input elements.
+     * @param <R>          the type of elements accepted by set.
+     * @return a {@code Collector} which collects all the input elements into a presized {@code Set},
+     * with applying a mapper {@code Function} to each elements.
+     * @throws java.lang.NullPointerException     if mapper is null.
+     * @throws java.lang.IllegalArgumentException if expectedSize is negative.
+     */
+    public static <T, R> Collector<T, ?, Set<R>> toSetMapped(final Function<? super T, ? extends R> mapper,
+                                                             final int expectedSize) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        requireNonNegative(expectedSize);
+        return Collector.of(() -> new HashSet<>(hashCapacity(expectedSize)),
+                            (Set<R> set, T e) -> set.add(mapper.apply(e)),
+                            (left, right) -> {
+                                left.addAll(right);
+                                return left;
+                            },
+                            Collector.Characteristics.UNORDERED,
+                            Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that collects all the input elements into an immutable {@code Set},
+     * with applying a mapper {@code Function} to each elements.</p>
+     *
+     * <p>The resulting set keeps its elements in an exact-length array indexed by an open-addressing table of
+     * {@code int}s, instead of one {@code HashMap} node per element.</p>
+     *
+     * @param mapper a function to be applied to the input elements.
+     * @param <T>    the type of the input elements.
+     * @param <R>    the type of elements accepted by set.
+     * @return a {@code Collector} which collects all the input elements into an immutable {@code Set}.
+     * @throws java.lang.NullPointerException if mapper is null.
+     */
+    public static <T, R> Collector<T, ?, Set<R>> toImmutableSetMapped(final Function<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(mapper, "mapper is null");
+        return Collectors.collectingAndThen(toSetMapped(mapper), CompactSet::copyOf);
+    }
+
     /**
      * <p>Returns a {@code Collector} that collects all the input elements into a new {@code Stream}.</p>
      *
@@ -117,6 +219,66 @@ public final class MoreCollectors {
                             DoubleStream.Builder::build);
     }
 
+    /**
+     * <p>Returns a {@code Collector} like {@link #toIntStream(ToIntFunction)}, but accumulates the mapped values in
+     * chunks of direct memory instead of the Java heap, which keeps large numeric intermediates away from the garbage
+     * collector.</p>
+     *
+     * <p>The memory is released when the resulting {@code IntStream} is closed, so the stream should be consumed in
+     * a try-with-resources statement. Traversing a closed stream throws {@code IllegalStateException}. The resulting
+     * stream is sized and splits well in parallel.</p>
+     * <pre class="java"><code class="java">Map&lt;Foo, IntStream&gt; group = stream.collect(groupingBy(a -&gt; a.foo(), toOffHeapIntStream(a -&gt; a.bar())));
+     *try (IntStream bars = group.get(foo)) {
+     *    bars.sum();
+     *}</code></pre>
+     *
+     * @param <T>       the type of the input elements.
+     * @param keyMapper a function to extract an {@code int} from each element.
+     * @return a collector which collects the mapped values into an off-heap {@code IntStream}.
+     */
+    public static <T> Collector<T, ?, IntStream> toOffHeapIntStream(final ToIntFunction<? super T> keyMapper) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        return Collector.of(() -> new OffHeapBuffer(Integer.BYTES),
+                            (buffer, e) -> buffer.putInt(keyMapper.applyAsInt(e)),
+                            OffHeapBuffer::append,
+                            OffHeapBuffer::toIntStream);
+    }
+
+    /**
+     * <p>Returns a {@code Collector} like {@link #toLongStream(ToLongFunction)}, but accumulates the mapped values in
+     * chunks of direct memory, released when the resulting {@code LongStream} is closed.</p>
+     *
+     * @param <T>       the type of the input elements.
+     * @param keyMapper a function to extract a {@code long} from each element.
+     * @return a collector which collects the mapped values into an off-heap {@code LongStream}.
+     * @see #toOffHeapIntStream(ToIntFunction)
+     */
+    public static <T> Collector<T, ?, LongStream> toOffHeapLongStream(final ToLongFunction<? super T> keyMapper) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        return Collector.of(() -> new OffHeapBuffer(Long.BYTES),
+                            (buffer, e) -> buffer.putLong(keyMapper.applyAsLong(e)),
+                            OffHeapBuffer::append,
+                            OffHeapBuffer::toLongStream);
+    }
+
+    /**
+     * <p>Returns a {@code Collector} like {@link #toDoubleStream(ToDoubleFunction)}, but accumulates the mapped values
+     * in chunks of direct memory, released when the resulting {@code DoubleStream} is closed.</p>
+     *
+     * @param <T>       the type of the input elements.
+     * @param keyMapper a function to extract a {@code double} from each element.
+     * @return a collector which collects the mapped values into an off-heap {@code DoubleStream}.
+     * @see #toOffHeapIntStream(ToIntFunction)
+     */
+    public static <T> Collector<T, ?, DoubleStream> toOffHeapDoubleStream(
+            final ToDoubleFunction<? super T> keyMapper) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        return Collector.of(() -> new OffHeapBuffer(Double.BYTES),
+                            (buffer, e) -> buffer.putDouble(keyMapper.applyAsDouble(e)),
+                            OffHeapBuffer::append,
+                            OffHeapBuffer::toDoubleStream);
+    }
+
     private static <T, K, A, V, M extends Map<K, V>> Collector<T, ?, Stream<Entry<K, V>>> toGroupedEntries(
             final Function<? super T, ? extends K> keyMapper,
             final Collector<? super T, A, V> downstream,
@@ -134,14 +296,379 @@ public final class MoreCollectors {
         return toGroupedEntries(keyMapper, downstream, HashMap::new);
     }
 
+    /**
+     * <p>Returns a {@code Collector} that groups the input elements by {@code keyMapper}, and streams the entries of
+     * the groups.</p>
+     *
+     * <p>Each group is an immutable {@code List} of the elements in encounter order, backed by an array of exactly
+     * its size.</p>
+     *
+     * @param <T>       the type of the input elements.
+     * @param <K>       the type of the keys.
+     * @param keyMapper a function to classify the input elements.
+     * @return a {@code Collector} which streams the entries of the groups.
+     * @throws java.lang.NullPointerException if keyMapper is null.
+     * @see #toGroupedMap(java.util.function.Function)
+     */
     public static <T, K> Collector<T, ?, Stream<Entry<K, List<T>>>> toGroupedEntries(final Function<T, ? extends K> keyMapper) {
-        return toGroupedEntries(keyMapper, Collectors.toList());
+        return Collectors.collectingAndThen(MoreCollectors.<T, K>toGroupedMap(keyMapper),
+                                            map -> map.entrySet().stream());
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that groups the input elements by {@code keyMapper} into an immutable
+     * {@code Map}, whose values are immutable {@code List}s of the elements in encounter order.</p>
+     *
+     * <p>The resulting map and lists are compact: keys and values are kept in two exact-length arrays without any
+     * entry object, and each list is backed by an array of exactly its size without any wrapper, so that a large
+     * number of groups can be retained with a small heap footprint.</p>
+     *
+     * @param <T>       the type of the input elements.
+     * @param <K>       the type of the keys.
+     * @param keyMapper a function to classify the input elements.
+     * @return a {@code Collector} which groups the input elements into an immutable {@code Map}.
+     * @throws java.lang.NullPointerException if keyMapper is null.
+     */
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> toGroupedMap(final Function<? super T, ? extends K> keyMapper) {
+        return toGroupedMap(keyMapper, Collectors.collectingAndThen(Collectors.toList(), CompactList::copyOf));
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that groups the input elements by {@code keyMapper} into an immutable
+     * {@code Map}, whose values are results of {@code downstream}.</p>
+     *
+     * <p>The resulting map keeps keys and values in two exact-length arrays without any entry object.</p>
+     *
+     * @param <T>        the type of the input elements.
+     * @param <K>        the type of the keys.
+     * @param <A>        the intermediate accumulation type of the downstream collector.
+     * @param <V>        the result type of the downstream reduction.
+     * @param keyMapper  a function to classify the input elements.
+     * @param downstream a {@code Collector} implementing the downstream reduction.
+     * @return a {@code Collector} which groups the input elements into an immutable {@code Map}.
+     * @throws java.lang.NullPointerException if any of arguments is null.
+     */
+    public static <T, K, A, V> Collector<T, ?, Map<K, V>> toGroupedMap(
+            final Function<? super T, ? extends K> keyMapper, final Collector<? super T, A, V> downstream) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        Objects.requireNonNull(downstream, "downstream is null");
+        return Collectors.collectingAndThen(Collectors.groupingBy(keyMapper, HashMap::new, downstream),
+                                            CompactMap::copyOf);
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that groups the input elements by {@code keyMapper} and reduces each group to a
+     * {@code long} by {@code reducer}, and streams the entries of the groups.</p>
+     *
+     * <p>This is the allocation-free counterpart of {@code toGroupedEntries(keyMapper, counting())} and the like: see
+     * {@link #toGroupedMap(java.util.function.Function, LongReducer)}.</p>
+     *
+     * @param <T>       the type of the input elements.
+     * @param <K>       the type of the keys.
+     * @param keyMapper a function to classify the input elements.
+     * @param reducer   an associative reduction of each group.
+     * @return a {@code Collector} which streams the entries of the reduced groups.
+     * @throws java.lang.NullPointerException if any of arguments is null, or if an element is mapped to a null key.
+     */
+    public static <T, K> Collector<T, ?, Stream<Entry<K, Long>>> toGroupedEntries(
+            final Function<? super T, ? extends K> keyMapper, final LongReducer<? super T> reducer) {
+        return Collectors.collectingAndThen(MoreCollectors.<T, K>toGroupedMap(keyMapper, reducer),
+                                            map -> map.entrySet().stream());
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that groups the input elements by {@code keyMapper} into an immutable
+     * {@code Map}, whose values are the reductions of the groups by {@code reducer}.</p>
+     *
+     * <p>The groups are reduced in place: each leaf task keeps one {@code long} per key in a primitive array aligned
+     * with its open-addressing key table, and combining two tables merges the values with the operator of the
+     * reducer. No per-key accumulator is created and no intermediate value is boxed; each value is boxed once in the
+     * resulting map.</p>
+     * <pre class="java"><code class="java">Map&lt;Dept, Long&gt; headcount = emps.parallelStream().collect(toGroupedMap(Emp::dept, LongReducer.counting()));</code></pre>
+     *
+     * @param <T>       the type of the input elements.
+     * @param <K>       the type of the keys.
+     * @param keyMapper a function to classify the input elements.
+     * @param reducer   an associative reduction of each group.
+     * @return a {@code Collector} which groups and reduces the input elements into an immutable {@code Map}.
+     * @throws java.lang.NullPointerException if any of arguments is null, or if an element is mapped to a null key.
+     */
+    public static <T, K> Collector<T, ?, Map<K, Long>> toGroupedMap(final Function<? super T, ? extends K> keyMapper,
+                                                                    final LongReducer<? super T> reducer) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        Objects.requireNonNull(reducer, "reducer is null");
+        return Collector.of(() -> new LongAggregationTable(reducer.operator()), (table, e) -> {
+            final K key = keyMapper.apply(e);
+            table.merge(Objects.requireNonNull(key, "element cannot be mapped to a null key"), reducer.map(e));
+        }, LongAggregationTable::mergeAll, LongAggregationTable::<K>toMap);
+    }
+
+    /**
+     * <p>Same as {@link #toSortedGroupedEntries(Function, Comparator, Collector)} with the natural order of the
+     * keys.</p>
+     *
+     * @param <T>        the type of the input elements.
+     * @param <K>        the type of the keys.
+     * @param <A>        the intermediate accumulation type of the downstream collector.
+     * @param <V>        the result type of the downstream reduction.
+     * @param keyMapper  a function to classify the input elements.
+     * @param downstream a {@code Collector} implementing the downstream reduction.
+     * @return a {@code Collector} which streams the entries of the groups in ascending order of the keys.
+     * @throws java.lang.NullPointerException if any of arguments is null.
+     */
+    public static <T, K extends Comparable<? super K>, A, V> Collector<T, ?, Stream<Entry<K, V>>> toSortedGroupedEntries(
+            final Function<? super T, ? extends K> keyMapper, final Collector<? super T, A, V> downstream) {
+        return toSortedGroupedEntries(keyMapper, Comparator.naturalOrder(), downstream);
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that groups the input elements by {@code keyMapper}, and streams the entries of
+     * the groups in ascending order of the keys.</p>
+     *
+     * <p>Instead of a {@code HashMap}, this collector buffers the elements, sorts them by key with
+     * {@code Arrays.parallelSort}, and reduces each run of equal keys with {@code downstream} in a sequential scan.
+     * With very many distinct keys, this avoids one hash node and one downstream container per key and per leaf
+     * task, and the costly merge of large maps; the sorted order comes for free. Keys are equal if
+     * {@code comparator} says so. The elements of each group are reduced in encounter order.</p>
+     * <pre class="java"><code class="java">Stream&lt;Entry&lt;String, Long&gt;&gt; perUser = events.parallelStream().collect(toSortedGroupedEntries(Event::userId, naturalOrder(), counting()));</code></pre>
+     *
+     * @param <T>        the type of the input elements.
+     * @param <K>        the type of the keys.
+     * @param <A>        the intermediate accumulation type of the downstream collector.
+     * @param <V>        the result type of the downstream reduction.
+     * @param keyMapper  a function to classify the input elements.
+     * @param comparator the order of the keys.
+     * @param downstream a {@code Collector} implementing the downstream reduction.
+     * @return a {@code Collector} which streams the entries of the groups in ascending order of the keys.
+     * @throws java.lang.NullPointerException if any of arguments is null.
+     * @see #toSortedGroupedEntriesByInt(ToIntFunction, Collector)
+     */
+    public static <T, K, A, V> Collector<T, ?, Stream<Entry<K, V>>> toSortedGroupedEntries(
+            final Function<? super T, ? extends K> keyMapper,
+            final Comparator<? super K> comparator,
+            final Collector<? super T, A, V> downstream) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        Objects.requireNonNull(comparator, "comparator is null");
+        Objects.requireNonNull(downstream, "downstream is null");
+        return SortedGrouping.byComparator(keyMapper, comparator, downstream);
+    }
+
+    /**
+     * <p>Same as {@link #toSortedGroupedEntries(Function, Comparator, Collector)}, but specialized for {@code int}
+     * keys.</p>
+     *
+     * <p>Each key is packed with the index of its element into a {@code long}, so the sort is a parallel sort of a
+     * primitive array, which is stable by the index and needs no object per element at all.</p>
+     *
+     * @param <T>        the type of the input elements.
+     * @param <A>        the intermediate accumulation type of the downstream collector.
+     * @param <V>        the result type of the downstream reduction.
+     * @param keyMapper  a function to extract an {@code int} key from the input elements.
+     * @param downstream a {@code Collector} implementing the downstream reduction.
+     * @return a {@code Collector} which streams the entries of the groups in ascending order of the keys.
+     * @throws java.lang.NullPointerException if any of arguments is null.
+     */
+    public static <T, A, V> Collector<T, ?, Stream<Entry<Integer, V>>> toSortedGroupedEntriesByInt(
+            final ToIntFunction<? super T> keyMapper, final Collector<? super T, A, V> downstream) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        Objects.requireNonNull(downstream, "downstream is null");
+        return SortedGrouping.byInt(keyMapper, downstream);
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that builds a {@link GroupingIndex} of the input elements by
+     * {@code keyMapper}, on which any number of downstream reductions can be run without hashing the elements
+     * again.</p>
+     * <pre class="java"><code class="java">GroupingIndex&lt;Emp, Dept&gt; byDept = emps.stream().collect(toGroupingIndex(Emp::dept));
+     *Stream&lt;Entry&lt;Dept, Long&gt;&gt; headcount = byDept.toGroupedEntries(counting());</code></pre>
+     *
+     * @param <T>       the type of the input elements.
+     * @param <K>       the type of the keys.
+     * @param keyMapper a function to classify the input elements.
+     * @return a {@code Collector} which builds an index of the input elements.
+     * @throws java.lang.NullPointerException if keyMapper is null, or if an element is mapped to a null key.
+     * @see GroupingIndex.Cache
+     */
+    public static <T, K> Collector<T, ?, GroupingIndex<T, K>> toGroupingIndex(
+            final Function<? super T, ? extends K> keyMapper) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        return Collectors.collectingAndThen(Collectors.toList(), list -> GroupingIndex.of(list, keyMapper));
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that accumulates the input elements into a columnar {@link ColumnTable}: one
+     * primitive array per {@code int} or {@code double} field, and one dictionary-encoded array of codes per key
+     * field.</p>
+     *
+     * <p>Key fields suit low-cardinality values such as enums or departments; each distinct key is kept once, and
+     * the table groups by its codes without hashing or boxing. The columns are indexed in the order of the given
+     * lists, and rows are in encounter order.</p>
+     * <pre class="java"><code class="java">ColumnTable emps = stream.collect(toColumns(asList(Emp::age), asList(Emp::salary), asList(Emp::dept)));</code></pre>
+     *
+     * @param <T>          the type of the input elements.
+     * @param intFields    functions to extract the {@code int} columns.
+     * @param doubleFields functions to extract the {@code double} columns.
+     * @param keyFields    functions to extract the dictionary-encoded key columns.
+     * @return a {@code Collector} which accumulates the input elements into a {@code ColumnTable}.
+     * @throws java.lang.NullPointerException if any of arguments or any of the functions is null.
+     */
+    public static <T> Collector<T, ?, ColumnTable> toColumns(final List<? extends ToIntFunction<? super T>> intFields,
+                                                             final List<? extends ToDoubleFunction<? super T>> doubleFields,
+                                                             final List<? extends Function<? super T, ?>> keyFields) {
+        final List<? extends ToIntFunction<? super T>> ints = CompactList.copyOf(requireNoNull(intFields, "intFields"));
+        final List<? extends ToDoubleFunction<? super T>> doubles = CompactList.copyOf(requireNoNull(doubleFields,
+                                                                                                    "doubleFields"));
+        final List<? extends Function<? super T, ?>> keys = CompactList.copyOf(requireNoNull(keyFields, "keyFields"));
+        return Collector.of(() -> new ColumnTable.Builder<T>(ints, doubles, keys),
+                            ColumnTable.Builder::add,
+                            ColumnTable.Builder::append,
+                            ColumnTable.Builder::build);
+    }
+
+    private static <L extends List<?>> L requireNoNull(final L list, final String name) {
+        Objects.requireNonNull(list, name + " is null");
+        for (final Object e : list) {
+            Objects.requireNonNull(e, name + " contains null");
+        }
+        return list;
+    }
+
+    /**
+     * <p>Same as {@link Collectors#groupingBy(java.util.function.Function)}, but tuned for parallel streams whose
+     * keys are heavily skewed.</p>
+     *
+     * @param <T>       the type of the input elements.
+     * @param <K>       the type of the keys.
+     * @param keyMapper a function to classify the input elements.
+     * @return a {@code Collector} which groups the input elements into a {@code Map} of {@code List}s.
+     * @throws java.lang.NullPointerException if keyMapper is null.
+     * @see #skewAwareGroupingBy(java.util.function.Function, java.util.stream.Collector)
+     */
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> skewAwareGroupingBy(
+            final Function<? super T, ? extends K> keyMapper) {
+        return skewAwareGroupingBy(keyMapper, Collectors.toList());
+    }
+
+    /**
+     * <p>Same as {@link Collectors#groupingBy(java.util.function.Function, java.util.stream.Collector)}, but tuned
+     * for parallel streams whose keys are heavily skewed.</p>
+     *
+     * <p>When a few keys hold most of the elements, {@code groupingBy} spends its time in the combiner, copying the
+     * giant groups again at every level of the combine tree. This collector counts the elements of each group while
+     * accumulating, and a group that gets large within a leaf task becomes hot: combines only link its partial
+     * results in encounter order, and they are reduced by {@code downstream} once, when the result is finished.
+     * Cold groups are combined as usual. The resulting {@code Map} is the same as that of {@code groupingBy}.</p>
+     * <pre class="java"><code class="java">Map&lt;Dept, List&lt;Emp&gt;&gt; byDept = emps.parallelStream().collect(skewAwareGroupingBy(Emp::dept, toList()));</code></pre>
+     *
+     * @param <T>        the type of the input elements.
+     * @param <K>        the type of the keys.
+     * @param <A>        the intermediate accumulation type of the downstream collector.
+     * @param <V>        the result type of the downstream reduction.
+     * @param keyMapper  a function to classify the input elements.
+     * @param downstream a {@code Collector} implementing the downstream reduction.
+     * @return a {@code Collector} which groups the input elements into a {@code Map}.
+     * @throws java.lang.NullPointerException if any of arguments is null, or if an element is mapped to a null key.
+     */
+    public static <T, K, A, V> Collector<T, ?, Map<K, V>> skewAwareGroupingBy(
+            final Function<? super T, ? extends K> keyMapper, final Collector<? super T, A, V> downstream) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        Objects.requireNonNull(downstream, "downstream is null");
+        return SkewAwareGrouping.collector(keyMapper, downstream);
     }
 
     public static <K, V> Collector<Entry<K, V>, ?, Map<K, V>> toMapFromEntry() {
         return Collectors.toMap(Entry::getKey, Map.Entry::getValue);
     }
 
+    /**
+     * <p>Same as {@link #toMapFromEntry()}, but the resulting {@code HashMap} is allocated with enough capacity to
+     * hold {@code expectedSize} entries without rehashing.</p>
+     *
+     * <p>This is meant for sequential streams, as each leaf task of a parallel stream allocates a map of the full
+     * capacity.</p>
+     *
+     * @param <K>          the type of keys.
+     * @param <V>          the type of values.
+     * @param expectedSize the expected number of the distinct keys.
+     * @return a {@code Collector} which collects entries into a presized {@code Map}.
+     * @throws java.lang.IllegalArgumentException if expectedSize is negative.
+     * @throws java.lang.IllegalStateException    on collection, if duplicated keys are found.
+     */
+    public static <K, V> Collector<Entry<K, V>, ?, Map<K, V>> toMapFromEntry(final int expectedSize) {
+        requireNonNegative(expectedSize);
+        return Collector.of(() -> new HashMap<>(hashCapacity(expectedSize)),
+                            MoreCollectors::putUniquely,
+                            (Map<K, V> left, Map<K, V> right) -> {
+                                right.entrySet().forEach(e -> putUniquely(left, e));
+                                return left;
+                            },
+                            Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * <p>Safer shortcut of {@code Collectors.toMap(Entry::getKey, Entry::getValue, mergeFunction, mapFactory)}</p>
+     *
+     * @param <K>           the type of keys.
+     * @param <V>           the type of values.
+     * @param <M>           the type of the resulting {@code Map}.
+     * @param mergeFunction a function to resolve the values associated with the same key.
+     * @param mapFactory    a function which returns a new, empty {@code Map}.
+     * @return a {@code Collector} which collects entries into a {@code Map} created by {@code mapFactory}.
+     * @throws java.lang.NullPointerException if any of arguments is null.
+     * @see Collectors#toMap(java.util.function.Function, java.util.function.Function,
+     * java.util.function.BinaryOperator, java.util.function.Supplier)
+     */
+    public static <K, V, M extends Map<K, V>> Collector<Entry<K, V>, ?, M> toMapFromEntry(
+            final BinaryOperator<V> mergeFunction, final Supplier<M> mapFactory) {
+        Objects.requireNonNull(mergeFunction, "mergeFunction is null");
+        Objects.requireNonNull(mapFactory, "mapFactory is null");
+        return Collectors.toMap(Entry::getKey, Entry::getValue, mergeFunction, mapFactory);
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that collects entries into an immutable {@code Map}.</p>
+     *
+     * <p>The resulting map keeps keys and values in two exact-length arrays indexed by an open-addressing table of
+     * {@code int}s, instead of one {@code HashMap} node per entry. The iteration order is the encounter order of
+     * the first entry of each key.</p>
+     *
+     * @param <K> the type of keys.
+     * @param <V> the type of values.
+     * @return a {@code Collector} which collects entries into an immutable {@code Map}.
+     * @throws java.lang.IllegalStateException on collection, if duplicated keys are found.
+     */
+    public static <K, V> Collector<Entry<K, V>, ?, Map<K, V>> toImmutableMapFromEntry() {
+        return Collector.of(LinkedHashMap<K, V>::new,
+                            MoreCollectors::putUniquely,
+                            (left, right) -> {
+                                right.entrySet().forEach(e -> putUniquely(left, e));
+                                return left;
+                            },
+                            CompactMap::copyOf);
+    }
+
+    private static <K, V> void putUniquely(final Map<K, V> map, final Entry<K, V> entry) {
+        final K key = entry.getKey();
+        final V value = Objects.requireNonNull(entry.getValue());
+        final V existing = map.putIfAbsent(key, value);
+        if (existing != null) {
+            throw new IllegalStateException(String.format("Duplicate key %s (attempted merging values %s and %s)",
+                                                          key,
+                                                          existing,
+                                                          value));
+        }
+    }
+
+    private static void requireNonNegative(final int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative.");
+        }
+    }
+
+    private static int hashCapacity(final int expectedSize) {
+        return expectedSize < 3 ? expectedSize + 1 : (int) (expectedSize / 0.75f + 1.0f);
+    }
+
     public static <T, K, A, V, M extends Map<K, V>, R> Collector<T, ?, Stream<R>> groupingThenStreaming(
             final Function<? super T, ? extends K> keyMapper,
             final Collector<? super T, A, V> downstream,
@@ -164,4 +691,197 @@ public final class MoreCollectors {
             final Function<? super T, ? extends K> keyMapper, final BiFunction<? super K, List<T>, R> finisher) {
         return groupingThenStreaming(keyMapper, Collectors.toList(), finisher);
     }
+
+    /**
+     * <p>Returns a {@code Collector} which behaves as the given one, reporting how it runs to the
+     * {@link StageMetrics} of the given name.</p>
+     *
+     * <p>The metrics record the number of accumulated elements and of result containers (one per parallel leaf
+     * task), the number and duration of combines and finishes, and the size of the result if it is a {@code Map} or
+     * a {@code Collection}, i.e. the group cardinality of {@code groupingBy}-like collectors. Counters are striped,
+     * so parallel accumulation does not contend on them.</p>
+     * <pre class="java"><code class="java">Map&lt;Bar, List&lt;Foo&gt;&gt; map = foos.collect(instrumented(groupingBy(Foo::bar), "foos-by-bar"));</code></pre>
+     *
+     * @param <T>       the type of the input elements.
+     * @param <A>       the mutable accumulation type of the collector.
+     * @param <R>       the result type of the collector.
+     * @param collector the collector to be instrumented.
+     * @param name      the name of the stage, which is also the JMX name of its metrics. The metrics are kept
+     *                  until {@link StageMetrics#remove(String)}.
+     * @return a collector which collects as the given one does.
+     * @see MoreStreams#instrumented(Stream, String)
+     */
+    public static <T, A, R> Collector<T, A, R> instrumented(final Collector<T, A, R> collector, final String name) {
+        Objects.requireNonNull(collector, "collector is null");
+        final StageMetrics metrics = StageMetrics.of(name);
+        final Supplier<A> supplier = collector.supplier();
+        final BiConsumer<A, T> accumulator = collector.accumulator();
+        final BinaryOperator<A> combiner = collector.combiner();
+        final Function<A, R> finisher = collector.finisher();
+        final Set<Collector.Characteristics> characteristics = EnumSet.noneOf(Collector.Characteristics.class);
+        characteristics.addAll(collector.characteristics());
+        characteristics.remove(Collector.Characteristics.IDENTITY_FINISH);
+        return Collector.of(() -> {
+            metrics.recordContainer();
+            return supplier.get();
+        }, (container, e) -> {
+            metrics.recordElement();
+            accumulator.accept(container, e);
+        }, (left, right) -> {
+            final long start = System.nanoTime();
+            final A combined = combiner.apply(left, right);
+            metrics.recordCombine(System.nanoTime() - start);
+            return combined;
+        }, container -> {
+            final long start = System.nanoTime();
+            final R result = finisher.apply(container);
+            metrics.recordFinish(System.nanoTime() - start, result);
+            return result;
+        }, characteristics.toArray(new Collector.Characteristics[0]));
+    }
+
+    /**
+     * <p>Returns a {@code Collector} which behaves as the given one, emitting Java Flight Recorder events for each of
+     * its phases under the given stage name.</p>
+     *
+     * <p>Three event types are emitted, all in the {@code Streams} category:</p>
+     * <ul>
+     * <li>{@code net.exoego.stream.CollectorAccumulate}: one per result container, i.e. per parallel leaf task, with
+     * the number of accumulated elements and the size of the container.</li>
+     * <li>{@code net.exoego.stream.CollectorCombine}: one per combine, with the element counts and sizes of both
+     * sides, so that time spent merging large maps (and rehashing them) is attributed to the combiner.</li>
+     * <li>{@code net.exoego.stream.CollectorFinish}: one per finish, with the size of the result.</li>
+     * </ul>
+     *
+     * <p>Sizes are those of {@code Map} or {@code Collection} containers and results, and -1 otherwise. When no
+     * recording enables these events, no event is allocated and the overhead is a counter increment per element.</p>
+     * <pre class="java"><code class="java">Stream&lt;R&gt; s = foos.parallel().collect(recorded(groupingThenStreaming(Foo::bar, finisher), "foo-report"));</code></pre>
+     *
+     * @param <T>       the type of the input elements.
+     * @param <A>       the mutable accumulation type of the collector.
+     * @param <R>       the result type of the collector.
+     * @param collector the collector to be recorded.
+     * @param name      the name of the stage, which is set to the events.
+     * @return a collector which collects as the given one does.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static <T, A, R> Collector<T, ?, R> recorded(final Collector<T, A, R> collector, final String name) {
+        Objects.requireNonNull(collector, "collector is null");
+        Objects.requireNonNull(name, "name is null");
+        return CollectorEvents.record(collector, name);
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that collects the first {@code n} input elements into an immutable {@code List},
+     * in encounter order.</p>
+     *
+     * <p>The collector is saturated once it holds {@code n} elements: collected by
+     * {@link MoreStreams#collectUntil(Stream, ShortCircuitingCollector)}, the rest of the input is not pulled at
+     * all.</p>
+     *
+     * @param <T> the type of the input elements.
+     * @param n   the maximum number of the elements to be collected.
+     * @return a short-circuiting {@code Collector} which collects the first {@code n} elements.
+     * @throws java.lang.IllegalArgumentException if n is not positive.
+     */
+    public static <T> ShortCircuitingCollector<T, ?, List<T>> firstN(final int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be greater than 0.");
+        }
+        return ShortCircuitingCollectors.firstN(n);
+    }
+
+    /**
+     * <p>Same as {@link #groupingLimit(Function, int, int)}, but never saturated since the number of groups is not
+     * known in advance.</p>
+     *
+     * @param <T>       the type of the input elements.
+     * @param <K>       the type of the keys.
+     * @param keyMapper a function to classify the input elements.
+     * @param limit     the maximum number of the elements of each group.
+     * @return a {@code Collector} which collects the first {@code limit} elements of each group.
+     * @throws java.lang.NullPointerException     if keyMapper is null.
+     * @throws java.lang.IllegalArgumentException if limit is not positive.
+     */
+    public static <T, K> ShortCircuitingCollector<T, ?, Map<K, List<T>>> groupingLimit(
+            final Function<? super T, ? extends K> keyMapper, final int limit) {
+        return groupingLimit(keyMapper, limit, Integer.MAX_VALUE);
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that groups the input elements by {@code keyMapper} into an immutable
+     * {@code Map}, keeping only the first {@code limit} elements of each group in encounter order.</p>
+     *
+     * <p>The collector is saturated once {@code expectedGroups} groups hold {@code limit} elements each, so that
+     * {@link MoreStreams#collectUntil(Stream, ShortCircuitingCollector)} stops pulling the input as soon as every
+     * group is full.</p>
+     * <pre class="java"><code class="java">// the first 10 employees of each of the 12 departments
+     *Map&lt;Dept, List&lt;Emp&gt;&gt; firstTen = collectUntil(emps, groupingLimit(Emp::dept, 10, 12));</code></pre>
+     *
+     * @param <T>            the type of the input elements.
+     * @param <K>            the type of the keys.
+     * @param keyMapper      a function to classify the input elements.
+     * @param limit          the maximum number of the elements of each group.
+     * @param expectedGroups the number of the groups, after all of which are full no more element is needed.
+     * @return a short-circuiting {@code Collector} which collects the first {@code limit} elements of each group.
+     * @throws java.lang.NullPointerException     if keyMapper is null, or if an element is mapped to a null key.
+     * @throws java.lang.IllegalArgumentException if limit or expectedGroups is not positive.
+     */
+    public static <T, K> ShortCircuitingCollector<T, ?, Map<K, List<T>>> groupingLimit(
+            final Function<? super T, ? extends K> keyMapper, final int limit, final int expectedGroups) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0.");
+        }
+        if (expectedGroups <= 0) {
+            throw new IllegalArgumentException("expectedGroups must be greater than 0.");
+        }
+        return ShortCircuitingCollectors.groupingLimit(keyMapper, limit, expectedGroups);
+    }
+
+    /**
+     * <p>Same as {@link #anyMatchPerGroup(Function, Predicate, int)}, but never saturated since the number of groups
+     * is not known in advance.</p>
+     *
+     * @param <T>       the type of the input elements.
+     * @param <K>       the type of the keys.
+     * @param keyMapper a function to classify the input elements.
+     * @param predicate a predicate to be tested against the elements.
+     * @return a {@code Collector} which tells whether any element of each group matches the predicate.
+     * @throws java.lang.NullPointerException if any of arguments is null.
+     */
+    public static <T, K> ShortCircuitingCollector<T, ?, Map<K, Boolean>> anyMatchPerGroup(
+            final Function<? super T, ? extends K> keyMapper, final Predicate<? super T> predicate) {
+        return anyMatchPerGroup(keyMapper, predicate, Integer.MAX_VALUE);
+    }
+
+    /**
+     * <p>Returns a {@code Collector} that groups the input elements by {@code keyMapper} into an immutable
+     * {@code Map}, telling whether any element of each group matches {@code predicate}.</p>
+     *
+     * <p>The predicate is no longer tested in a group which already has a match, and the collector is saturated once
+     * {@code expectedGroups} groups have a match, so that
+     * {@link MoreStreams#collectUntil(Stream, ShortCircuitingCollector)} stops pulling the input.</p>
+     * <pre class="java"><code class="java">Map&lt;Dept, Boolean&gt; wellPaid = collectUntil(emps, anyMatchPerGroup(Emp::dept, e -&gt; e.salary() &gt; x, 12));</code></pre>
+     *
+     * @param <T>            the type of the input elements.
+     * @param <K>            the type of the keys.
+     * @param keyMapper      a function to classify the input elements.
+     * @param predicate      a predicate to be tested against the elements.
+     * @param expectedGroups the number of the groups, after all of which have a match no more element is needed.
+     * @return a short-circuiting {@code Collector} which tells whether any element of each group matches.
+     * @throws java.lang.NullPointerException     if any of arguments is null, or if an element is mapped to a null key.
+     * @throws java.lang.IllegalArgumentException if expectedGroups is not positive.
+     */
+    public static <T, K> ShortCircuitingCollector<T, ?, Map<K, Boolean>> anyMatchPerGroup(
+            final Function<? super T, ? extends K> keyMapper,
+            final Predicate<? super T> predicate,
+            final int expectedGroups) {
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        Objects.requireNonNull(predicate, "predicate is null");
+        if (expectedGroups <= 0) {
+            throw new IllegalArgumentException("expectedGroups must be greater than 0.");
+        }
+        return ShortCircuitingCollectors.anyMatchPerGroup(keyMapper, predicate, expectedGroups);
+    }
 }
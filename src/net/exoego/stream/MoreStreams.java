@@ -1,28 +1,1084 @@
 package net.exoego.stream;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.BaseStream;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class MoreStreams {
+    private static final Object NULL_KEY = new Object();
+    private static final AtomicInteger BATCH_POOL_SEQUENCE = new AtomicInteger();
+
     private MoreStreams() {}
 
+    /**
+     * <p>Returns a stream of consecutive, non-overlapping chunks of {@code groupSize} elements of the given stream,
+     * in encounter order. The last chunk may be shorter.</p>
+     *
+     * <p>The chunks are lazily pulled from the given stream, and each chunk is an immutable {@code List} backed by
+     * an array of exactly its size. Closing the returned stream closes the given stream.</p>
+     *
+     * @param <T>        the type of the stream elements.
+     * @param baseStream the stream to be grouped.
+     * @param groupSize  the number of elements in each chunk.
+     * @return a stream of chunks.
+     * @throws NullPointerException     if {@code baseStream} is null.
+     * @throws IllegalArgumentException if {@code groupSize} is not positive.
+     */
     public static <T> Stream<List<T>> grouped(final Stream<T> baseStream, final int groupSize) {
         Objects.requireNonNull(baseStream, "baseStream is null.");
         if (groupSize <= 0) {
             throw new IllegalArgumentException("groupSize must be greater than 0.");
         }
-        final Iterator<T> iterator = baseStream.iterator();
-        return Stream.generate(() -> {
-            final List<T> ts = new ArrayList<>();
-            int i = 0;
-            while (i++ <= groupSize && iterator.hasNext()) {
-                ts.add(iterator.next());
-            }
-            return Collections.unmodifiableList(ts);
+        return StreamSupport.stream(new GroupedSpliterator<>(baseStream.spliterator(), groupSize), false)
+                            .onClose(baseStream::close);
+    }
+
+    /**
+     * <p>Groups each run of adjacent elements sharing the same key, and lazily streams the result of
+     * {@code finisher} for each run.</p>
+     *
+     * <p>Unlike {@link MoreCollectors#groupingThenStreaming(java.util.function.Function, java.util.stream.Collector,
+     * java.util.function.BiFunction)}, this method emits a group as soon as the key changes, so it needs memory only
+     * for the group being accumulated and works with infinite streams and short-circuiting operations such as
+     * {@code findFirst} or {@code limit}. A key appearing in separate runs produces separate groups, so the input
+     * should be clustered or sorted by the key.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;String&gt; firstTwoDays = groupAdjacent(logsSortedByDate, Log::date, counting(),
+     *                                              (date, n) -&gt; date + ":" + n).limit(2);</code></pre>
+     *
+     * @param <T>        the type of the stream elements.
+     * @param <K>        the type of the keys.
+     * @param <A>        the intermediate accumulation type of the downstream collector.
+     * @param <V>        the result type of the downstream reduction.
+     * @param <R>        the type of the resulting elements.
+     * @param stream     the stream clustered by the key.
+     * @param keyMapper  a function to classify the elements.
+     * @param downstream a {@code Collector} implementing the reduction of each run.
+     * @param finisher   a function to be applied to the key and the reduced value of each run.
+     * @return a stream of the results of {@code finisher}, in encounter order of the runs.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static <T, K, A, V, R> Stream<R> groupAdjacent(final Stream<T> stream,
+                                                          final Function<? super T, ? extends K> keyMapper,
+                                                          final Collector<? super T, A, V> downstream,
+                                                          final BiFunction<? super K, ? super V, ? extends R> finisher) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        Objects.requireNonNull(downstream, "downstream is null");
+        Objects.requireNonNull(finisher, "finisher is null");
+        final Spliterator<R> groups = new AdjacentGroupingSpliterator<>(stream.spliterator(),
+                                                                        keyMapper,
+                                                                        downstream,
+                                                                        finisher);
+        return StreamSupport.stream(groups, false).onClose(stream::close);
+    }
+
+    /**
+     * <p>Same as {@link #groupAdjacent(java.util.stream.Stream, java.util.function.Function,
+     * java.util.stream.Collector, java.util.function.BiFunction)} with collecting each run into a {@code List}.</p>
+     *
+     * @param <T>       the type of the stream elements.
+     * @param <K>       the type of the keys.
+     * @param <R>       the type of the resulting elements.
+     * @param stream    the stream clustered by the key.
+     * @param keyMapper a function to classify the elements.
+     * @param finisher  a function to be applied to the key and the elements of each run.
+     * @return a stream of the results of {@code finisher}, in encounter order of the runs.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static <T, K, R> Stream<R> groupAdjacent(final Stream<T> stream,
+                                                    final Function<? super T, ? extends K> keyMapper,
+                                                    final BiFunction<? super K, List<T>, ? extends R> finisher) {
+        return groupAdjacent(stream, keyMapper, Collectors.toList(), finisher);
+    }
+
+    /**
+     * <p>Reduces the elements of each key within tumbling event-time windows, and lazily streams each window once it
+     * is closed.</p>
+     *
+     * <p>Same as {@link #windowed(java.util.stream.Stream, java.util.function.ToLongFunction, long, long, long,
+     * java.util.function.Function, java.util.stream.Collector)} with {@code windowSlide} equal to
+     * {@code windowLength} and no allowed lateness, which suits a stream ordered by timestamp.</p>
+     *
+     * @param <T>          the type of the stream elements.
+     * @param <K>          the type of the keys.
+     * @param <A>          the intermediate accumulation type of the downstream collector.
+     * @param <V>          the result type of the downstream reduction.
+     * @param stream       the stream to be windowed, which may be infinite.
+     * @param timestampFn  a function to extract the event time of the elements.
+     * @param windowLength the length of each window, in the unit of the timestamps.
+     * @param keyMapper    a function to classify the elements.
+     * @param downstream   a {@code Collector} implementing the reduction within each window and key.
+     * @return a stream of closed windows.
+     * @throws NullPointerException     if any of arguments is null.
+     * @throws IllegalArgumentException if {@code windowLength} is not positive.
+     */
+    public static <T, K, A, V> Stream<Window<K, V>> windowed(final Stream<T> stream,
+                                                             final ToLongFunction<? super T> timestampFn,
+                                                             final long windowLength,
+                                                             final Function<? super T, ? extends K> keyMapper,
+                                                             final Collector<? super T, A, V> downstream) {
+        return windowed(stream, timestampFn, windowLength, windowLength, 0L, keyMapper, downstream);
+    }
+
+    /**
+     * <p>Reduces the elements of each key within tumbling or hopping event-time windows, and lazily streams each
+     * window once it is closed.</p>
+     *
+     * <p>Windows of {@code windowLength} start at every multiple of {@code windowSlide}, so an element belongs to
+     * several windows if {@code windowSlide} is shorter than {@code windowLength}. The watermark is the largest
+     * timestamp seen so far minus {@code allowedLateness}; a window is closed and emitted once its end is not after
+     * the watermark, and an element arriving only for closed windows is dropped. Only the open windows are kept in
+     * memory, so this works with an infinite stream. The remaining windows are emitted when the stream ends. The
+     * returned stream is ordered: windows come in order of their start, and the keys of a window in order of their
+     * first element.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;Window&lt;String, Long&gt;&gt; lastMinuteEvery10s =
+     *         windowed(telemetry, Metric::epochMillis, 60_000, 10_000, 5_000, Metric::host, counting());</code></pre>
+     *
+     * @param <T>             the type of the stream elements.
+     * @param <K>             the type of the keys.
+     * @param <A>             the intermediate accumulation type of the downstream collector.
+     * @param <V>             the result type of the downstream reduction.
+     * @param stream          the stream to be windowed, which may be infinite.
+     * @param timestampFn     a function to extract the event time of the elements.
+     * @param windowLength    the length of each window, in the unit of the timestamps.
+     * @param windowSlide     the interval between the starts of the windows.
+     * @param allowedLateness how far behind the largest timestamp an element may arrive.
+     * @param keyMapper       a function to classify the elements.
+     * @param downstream      a {@code Collector} implementing the reduction within each window and key.
+     * @return a stream of closed windows, in order of their start.
+     * @throws NullPointerException     if any of arguments is null.
+     * @throws IllegalArgumentException if {@code windowLength} or {@code windowSlide} is not positive, or
+     *                                  {@code allowedLateness} is negative.
+     */
+    public static <T, K, A, V> Stream<Window<K, V>> windowed(final Stream<T> stream,
+                                                             final ToLongFunction<? super T> timestampFn,
+                                                             final long windowLength,
+                                                             final long windowSlide,
+                                                             final long allowedLateness,
+                                                             final Function<? super T, ? extends K> keyMapper,
+                                                             final Collector<? super T, A, V> downstream) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(timestampFn, "timestampFn is null");
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        Objects.requireNonNull(downstream, "downstream is null");
+        if (windowLength <= 0) {
+            throw new IllegalArgumentException("windowLength must be greater than 0.");
+        }
+        if (windowSlide <= 0) {
+            throw new IllegalArgumentException("windowSlide must be greater than 0.");
+        }
+        if (allowedLateness < 0) {
+            throw new IllegalArgumentException("allowedLateness must not be negative.");
+        }
+        final Spliterator<Window<K, V>> windows = new WindowingSpliterator<>(stream.spliterator(),
+                                                                             timestampFn,
+                                                                             windowLength,
+                                                                             windowSlide,
+                                                                             allowedLateness,
+                                                                             keyMapper,
+                                                                             downstream);
+        return StreamSupport.stream(windows, false).onClose(stream::close);
+    }
+
+    /**
+     * <p>Lazily maps the elements of the given stream on other threads, keeping at most {@code maxConcurrency}
+     * applications of {@code mapper} in flight.</p>
+     *
+     * <p>This suits a {@code mapper} which mostly waits, such as a call to a slow service. The applications run on
+     * virtual threads if the runtime supports them, otherwise on a pool of up to {@code maxConcurrency} daemon
+     * threads owned by the returned stream. The given stream is pulled only to refill the window of in-flight
+     * applications, so a slow consumer holds back the source. If {@code ordered} is true the results are emitted in
+     * encounter order, otherwise as soon as they complete. A failure of {@code mapper} is rethrown to the consumer
+     * when its result would be emitted, cancelling the rest. Closing the returned stream also cancels the
+     * applications in flight; those already running are interrupted.</p>
+     *
+     * <p>Combined with {@link #grouped(java.util.stream.Stream, int)}, each application can handle a whole
+     * chunk:</p>
+     * <pre class="java"><code class="java">Stream&lt;Result&gt; results = mapAsync(grouped(requests, 100), service::callBatch, 8, true)
+     *         .flatMap(List::stream);</code></pre>
+     *
+     * @param <T>            the type of the stream elements.
+     * @param <R>            the type of the resulting elements.
+     * @param stream         the stream to be mapped.
+     * @param mapper         a function to be applied to each element.
+     * @param maxConcurrency the maximum number of applications in flight.
+     * @param ordered        whether the results are emitted in encounter order.
+     * @return a stream of the results of {@code mapper}.
+     * @throws NullPointerException     if any of arguments is null.
+     * @throws IllegalArgumentException if {@code maxConcurrency} is not positive.
+     */
+    public static <T, R> Stream<R> mapAsync(final Stream<T> stream,
+                                            final Function<? super T, ? extends R> mapper,
+                                            final int maxConcurrency,
+                                            final boolean ordered) {
+        return mapAsync(stream, mapper, maxConcurrency, ordered, null);
+    }
+
+    /**
+     * <p>Same as {@link #mapAsync(java.util.stream.Stream, java.util.function.Function, int, boolean)}, but the
+     * applications of {@code mapper} run on the given {@code executor}, which is not shut down by the returned
+     * stream.</p>
+     *
+     * @param <T>            the type of the stream elements.
+     * @param <R>            the type of the resulting elements.
+     * @param stream         the stream to be mapped.
+     * @param mapper         a function to be applied to each element.
+     * @param maxConcurrency the maximum number of applications in flight.
+     * @param ordered        whether the results are emitted in encounter order.
+     * @param executor       the executor to run {@code mapper}, or null to use the default one.
+     * @return a stream of the results of {@code mapper}.
+     * @throws NullPointerException     if any of arguments except {@code executor} is null.
+     * @throws IllegalArgumentException if {@code maxConcurrency} is not positive.
+     */
+    public static <T, R> Stream<R> mapAsync(final Stream<T> stream,
+                                            final Function<? super T, ? extends R> mapper,
+                                            final int maxConcurrency,
+                                            final boolean ordered,
+                                            final Executor executor) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(mapper, "mapper is null");
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0.");
+        }
+        final AsyncMapSpliterator<T, R> results = new AsyncMapSpliterator<>(stream.spliterator(),
+                                                                            mapper,
+                                                                            maxConcurrency,
+                                                                            ordered,
+                                                                            executor);
+        return StreamSupport.stream(results, false).onClose(results::close).onClose(stream::close);
+    }
+
+    /**
+     * <p>Same as {@link #processBatches(Stream, int, int, Function, boolean)} with committing the results in source
+     * order.</p>
+     *
+     * @param <T>         the type of the stream elements.
+     * @param <R>         the type of the results of the handler.
+     * @param stream      the stream to be processed.
+     * @param batchSize   the number of elements in each batch.
+     * @param parallelism the number of the worker threads.
+     * @param handler     a function to process each batch, which must not retain the batch.
+     * @return a stream of the results of {@code handler}, in source order.
+     * @throws NullPointerException     if any of arguments is null.
+     * @throws IllegalArgumentException if {@code batchSize} or {@code parallelism} is not positive.
+     */
+    public static <T, R> Stream<R> processBatches(final Stream<T> stream,
+                                                  final int batchSize,
+                                                  final int parallelism,
+                                                  final Function<? super List<T>, ? extends R> handler) {
+        return processBatches(stream, batchSize, parallelism, handler, true);
+    }
+
+    /**
+     * <p>Splits the given stream into batches of {@code batchSize} elements, processes them on a work-stealing pool
+     * of {@code parallelism} threads, and lazily streams the result of {@code handler} for each batch.</p>
+     *
+     * <p>Batches are filled from the source on the thread consuming the returned stream, while up to
+     * {@code 2 * parallelism} batches are handled by the pool, so that reading the source (e.g. I/O) overlaps with
+     * processing the batches, which plain {@code grouped(...).parallel()} cannot do. If {@code ordered}, results are
+     * committed in source order through a reorder buffer; otherwise as soon as they complete.</p>
+     *
+     * <p>Batch buffers are recycled: once {@code handler} returns, its batch is cleared and refilled later, so the
+     * handler must neither retain nor modify it. The last batch may be shorter.</p>
+     *
+     * <p>The pool is shut down as soon as the returned stream is exhausted or a handler fails. A stream which may be
+     * abandoned halfway, e.g. by {@code limit} or {@code findFirst}, should be used in a try-with-resources
+     * statement: closing it cancels the batches in flight, shuts down the pool and closes the given stream.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;Integer&gt; written = processBatches(rows, 500, 4, batch -&gt; dao.insertAll(batch));</code></pre>
+     *
+     * @param <T>         the type of the stream elements.
+     * @param <R>         the type of the results of the handler.
+     * @param stream      the stream to be processed.
+     * @param batchSize   the number of elements in each batch.
+     * @param parallelism the number of the worker threads.
+     * @param handler     a function to process each batch, which must not retain the batch.
+     * @param ordered     whether the results are emitted in source order.
+     * @return a stream of the results of {@code handler}.
+     * @throws NullPointerException     if any of arguments is null.
+     * @throws IllegalArgumentException if {@code batchSize} or {@code parallelism} is not positive.
+     */
+    public static <T, R> Stream<R> processBatches(final Stream<T> stream,
+                                                  final int batchSize,
+                                                  final int parallelism,
+                                                  final Function<? super List<T>, ? extends R> handler,
+                                                  final boolean ordered) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(handler, "handler is null");
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be greater than 0.");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be greater than 0.");
+        }
+        final BatchSpliterator<T> batches = new BatchSpliterator<>(stream.spliterator(), batchSize);
+        final String prefix = "MoreStreams-processBatches-" + BATCH_POOL_SEQUENCE.incrementAndGet() + "-";
+        final ForkJoinPool pool = new ForkJoinPool(parallelism, p -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(prefix + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        final AsyncMapSpliterator<List<T>, R> results = AsyncMapSpliterator.owning(batches,
+                                                                                   batches.recycling(handler),
+                                                                                   2 * parallelism,
+                                                                                   ordered,
+                                                                                   pool);
+        return StreamSupport.stream(results, false).onClose(results::close).onClose(stream::close);
+    }
+
+    /**
+     * <p>Returns a stream which pulls the items published by the given {@code Flow.Publisher}.</p>
+     *
+     * <p>The publisher is subscribed when the stream starts to be traversed, and at most {@code prefetch} items are
+     * requested ahead of the consumer, so a push source can feed {@code grouped} or any collector with bounded
+     * memory. The consumer blocks while waiting for items. An error signaled by the publisher is rethrown to the
+     * consumer, wrapped by a {@code CompletionException} if checked. Closing the stream cancels the
+     * subscription.</p>
+     *
+     * @param <T>       the type of the items.
+     * @param publisher the publisher to be subscribed.
+     * @param prefetch  the maximum number of items requested ahead of the consumer.
+     * @return a stream of the published items.
+     * @throws NullPointerException     if {@code publisher} is null.
+     * @throws IllegalArgumentException if {@code prefetch} is not positive.
+     */
+    public static <T> Stream<T> fromPublisher(final Flow.Publisher<? extends T> publisher, final int prefetch) {
+        Objects.requireNonNull(publisher, "publisher is null");
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch must be greater than 0.");
+        }
+        final PublisherSpliterator<T> items = new PublisherSpliterator<>(publisher, prefetch);
+        return StreamSupport.stream(items, false).onClose(items::cancel);
+    }
+
+    /**
+     * <p>Returns a {@code Flow.Publisher} which publishes the elements of the given stream to a single
+     * subscriber.</p>
+     *
+     * <p>The stream is pulled on the thread that requests, and never further than the requested demand. The stream
+     * is closed when it is exhausted or the subscription is cancelled. A second subscriber is signaled an
+     * {@code IllegalStateException}, as a stream can be traversed only once.</p>
+     *
+     * @param <T>    the type of the stream elements.
+     * @param stream the stream to be published.
+     * @return a publisher of the stream elements.
+     * @throws NullPointerException if {@code stream} is null.
+     */
+    public static <T> Flow.Publisher<T> toPublisher(final Stream<T> stream) {
+        Objects.requireNonNull(stream, "stream is null");
+        return new StreamPublisher<>(stream);
+    }
+
+    /**
+     * <p>Returns a {@code Flow.Processor} which applies the given collector to every {@code chunkSize} items, and
+     * publishes the result of each chunk.</p>
+     *
+     * <p>The processor requests one chunk from upstream at a time, and the next one only after the result of the
+     * previous one has been requested by the subscriber, so any collector of {@link MoreCollectors} can run on an
+     * unbounded live feed with memory bounded by a single accumulation. Passing {@code Integer.MAX_VALUE} as
+     * {@code chunkSize} publishes a single result when the upstream completes. The collector must not return
+     * null.</p>
+     * <pre class="java">Example:
+     * <code class="java">Flow.Processor&lt;Emp, Map&lt;Dept, Long&gt;&gt; countsPer1000 =
+     *         collectingProcessor(groupingBy(Emp::dept, counting()), 1000);</code></pre>
+     *
+     * @param <T>       the type of the input items.
+     * @param <A>       the intermediate accumulation type of the collector.
+     * @param <R>       the result type of the collector.
+     * @param collector the collector applied to each chunk.
+     * @param chunkSize the number of items in each chunk.
+     * @return a processor which publishes the result of each chunk.
+     * @throws NullPointerException     if {@code collector} is null.
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive.
+     */
+    public static <T, A, R> Flow.Processor<T, R> collectingProcessor(final Collector<? super T, A, R> collector,
+                                                                     final int chunkSize) {
+        Objects.requireNonNull(collector, "collector is null");
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be greater than 0.");
+        }
+        return new CollectingProcessor<>(collector, chunkSize);
+    }
+
+    /**
+     * <p>Returns a stream of the {@code int}s in the given binary file, in big-endian order as written by
+     * {@code DataOutputStream}.</p>
+     *
+     * @param path the file of {@code int}s.
+     * @return a stream of the {@code int}s in the file.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file size is not a multiple of 4 bytes.
+     * @throws NullPointerException     if {@code path} is null.
+     * @see #mappedInts(java.nio.file.Path, java.nio.ByteOrder)
+     */
+    public static IntStream mappedInts(final Path path) throws IOException {
+        return mappedInts(path, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * <p>Returns a stream of the {@code int}s in the given binary file, read directly from a read-only memory
+     * mapping of the file.</p>
+     *
+     * <p>The elements are never copied into an array on the heap. The stream is {@code SIZED} and splits evenly, so
+     * a whole file can be processed in parallel. The file must not be modified while the stream is in use.</p>
+     *
+     * @param path  the file of {@code int}s.
+     * @param order the byte order of the file.
+     * @return a stream of the {@code int}s in the file.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file size is not a multiple of 4 bytes.
+     * @throws NullPointerException     if any of arguments is null.
+     */
+    public static IntStream mappedInts(final Path path, final ByteOrder order) throws IOException {
+        final MappedRegion region = mapElements(path, Integer.BYTES, order);
+        return StreamSupport.intStream(new MappedRegion.IntSpliterator(region, 0, region.size() / Integer.BYTES),
+                                       false);
+    }
+
+    /**
+     * <p>Returns a stream of the {@code long}s in the given binary file, in big-endian order as written by
+     * {@code DataOutputStream}.</p>
+     *
+     * @param path the file of {@code long}s.
+     * @return a stream of the {@code long}s in the file.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file size is not a multiple of 8 bytes.
+     * @throws NullPointerException     if {@code path} is null.
+     * @see #mappedInts(java.nio.file.Path, java.nio.ByteOrder)
+     */
+    public static LongStream mappedLongs(final Path path) throws IOException {
+        return mappedLongs(path, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * <p>Returns a stream of the {@code long}s in the given binary file, read directly from a read-only memory
+     * mapping of the file.</p>
+     *
+     * @param path  the file of {@code long}s.
+     * @param order the byte order of the file.
+     * @return a stream of the {@code long}s in the file.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file size is not a multiple of 8 bytes.
+     * @throws NullPointerException     if any of arguments is null.
+     * @see #mappedInts(java.nio.file.Path, java.nio.ByteOrder)
+     */
+    public static LongStream mappedLongs(final Path path, final ByteOrder order) throws IOException {
+        final MappedRegion region = mapElements(path, Long.BYTES, order);
+        return StreamSupport.longStream(new MappedRegion.LongSpliterator(region, 0, region.size() / Long.BYTES),
+                                        false);
+    }
+
+    /**
+     * <p>Returns a stream of the {@code double}s in the given binary file, in big-endian order as written by
+     * {@code DataOutputStream}.</p>
+     *
+     * @param path the file of {@code double}s.
+     * @return a stream of the {@code double}s in the file.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file size is not a multiple of 8 bytes.
+     * @throws NullPointerException     if {@code path} is null.
+     * @see #mappedInts(java.nio.file.Path, java.nio.ByteOrder)
+     */
+    public static DoubleStream mappedDoubles(final Path path) throws IOException {
+        return mappedDoubles(path, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * <p>Returns a stream of the {@code double}s in the given binary file, read directly from a read-only memory
+     * mapping of the file.</p>
+     *
+     * @param path  the file of {@code double}s.
+     * @param order the byte order of the file.
+     * @return a stream of the {@code double}s in the file.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file size is not a multiple of 8 bytes.
+     * @throws NullPointerException     if any of arguments is null.
+     * @see #mappedInts(java.nio.file.Path, java.nio.ByteOrder)
+     */
+    public static DoubleStream mappedDoubles(final Path path, final ByteOrder order) throws IOException {
+        final MappedRegion region = mapElements(path, Double.BYTES, order);
+        return StreamSupport.doubleStream(new MappedRegion.DoubleSpliterator(region,
+                                                                             0,
+                                                                             region.size() / Double.BYTES), false);
+    }
+
+    /**
+     * <p>Returns a stream of the fixed-width records in the given binary file, decoded in big-endian order.</p>
+     *
+     * @param <T>        the type of the decoded records.
+     * @param path       the file of records.
+     * @param recordSize the number of bytes of each record.
+     * @param decoder    a function to decode a record.
+     * @return a stream of the decoded records.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if {@code recordSize} is not positive, or the file size is not a multiple of
+     *                                  {@code recordSize}.
+     * @throws NullPointerException     if any of arguments is null.
+     * @see #mappedRecords(java.nio.file.Path, int, java.nio.ByteOrder, java.util.function.Function)
+     */
+    public static <T> Stream<T> mappedRecords(final Path path,
+                                              final int recordSize,
+                                              final Function<? super ByteBuffer, ? extends T> decoder)
+            throws IOException {
+        return mappedRecords(path, recordSize, ByteOrder.BIG_ENDIAN, decoder);
+    }
+
+    /**
+     * <p>Returns a stream of the fixed-width records in the given binary file, decoded directly from a read-only
+     * memory mapping of the file.</p>
+     *
+     * <p>{@code decoder} is given a view of the mapping whose position is at the start of a record and whose limit
+     * is at its end, and should read the fields with relative gets. The view is reused for the following records,
+     * so the decoder must not retain it. The stream is {@code SIZED} and splits evenly, so a whole file can be
+     * processed in parallel.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;Emp&gt; emps = mappedRecords(path, 12, ByteOrder.LITTLE_ENDIAN,
+     *                                 b -&gt; new Emp(b.getInt(), b.getLong()));</code></pre>
+     *
+     * @param <T>        the type of the decoded records.
+     * @param path       the file of records.
+     * @param recordSize the number of bytes of each record.
+     * @param order      the byte order of the file.
+     * @param decoder    a function to decode a record.
+     * @return a stream of the decoded records.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if {@code recordSize} is not positive, or the file size is not a multiple of
+     *                                  {@code recordSize}.
+     * @throws NullPointerException     if any of arguments is null.
+     */
+    public static <T> Stream<T> mappedRecords(final Path path,
+                                              final int recordSize,
+                                              final ByteOrder order,
+                                              final Function<? super ByteBuffer, ? extends T> decoder)
+            throws IOException {
+        Objects.requireNonNull(decoder, "decoder is null");
+        if (recordSize <= 0) {
+            throw new IllegalArgumentException("recordSize must be greater than 0.");
+        }
+        final MappedRegion region = mapElements(path, recordSize, order);
+        return StreamSupport.stream(new MappedRegion.RecordSpliterator<T>(region,
+                                                                          recordSize,
+                                                                          decoder,
+                                                                          0,
+                                                                          region.size() / recordSize), false);
+    }
+
+    /**
+     * <p>Returns a stream of the lines in the given text file, which splits well in parallel.</p>
+     *
+     * <p>For UTF-8, US-ASCII and ISO-8859-1, the file is memory-mapped and split at line boundaries into chunks of
+     * about the same number of bytes, so a large file is processed in parallel evenly regardless of the JDK
+     * version. Lines are terminated by {@code "\n"} or {@code "\r\n"}. For other charsets, this falls back on
+     * {@link Files#lines(java.nio.file.Path, java.nio.charset.Charset)}. The file must not be modified while the
+     * stream is in use.</p>
+     *
+     * @param path    the text file.
+     * @param charset the charset of the file.
+     * @return a stream of the lines in the file.
+     * @throws IOException          if the file cannot be opened.
+     * @throws NullPointerException if any of arguments is null.
+     * @see #lineViews(java.nio.file.Path)
+     */
+    public static Stream<String> lines(final Path path, final Charset charset) throws IOException {
+        Objects.requireNonNull(path, "path is null");
+        Objects.requireNonNull(charset, "charset is null");
+        if (!isAsciiCompatible(charset)) {
+            return Files.lines(path, charset);
+        }
+        final MappedRegion region = MappedRegion.map(path, 1, ByteOrder.BIG_ENDIAN);
+        return StreamSupport.stream(new LineSpliterator.Decoding(region, (byte) '\n', true, charset, 0, region.size()),
+                                    false);
+    }
+
+    /**
+     * <p>Returns a stream of the records in the given text file, separated by {@code delimiter}, which splits well
+     * in parallel.</p>
+     *
+     * <p>The file is memory-mapped and split at delimiters into chunks of about the same number of bytes. A
+     * trailing delimiter does not make an empty last record.</p>
+     *
+     * @param path      the text file.
+     * @param delimiter the ASCII character separating the records.
+     * @param charset   the charset of the file, which must be UTF-8, US-ASCII or ISO-8859-1.
+     * @return a stream of the records in the file.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if {@code delimiter} is not ASCII, or {@code charset} is not supported.
+     * @throws NullPointerException     if any of arguments is null.
+     */
+    public static Stream<String> records(final Path path, final char delimiter, final Charset charset)
+            throws IOException {
+        Objects.requireNonNull(path, "path is null");
+        Objects.requireNonNull(charset, "charset is null");
+        if (delimiter >= 0x80) {
+            throw new IllegalArgumentException("delimiter must be an ASCII character.");
+        }
+        if (!isAsciiCompatible(charset)) {
+            throw new IllegalArgumentException("charset must be UTF-8, US-ASCII or ISO-8859-1: " + charset);
+        }
+        final MappedRegion region = MappedRegion.map(path, 1, ByteOrder.BIG_ENDIAN);
+        return StreamSupport.stream(new LineSpliterator.Decoding(region,
+                                                                 (byte) delimiter,
+                                                                 false,
+                                                                 charset,
+                                                                 0,
+                                                                 region.size()), false);
+    }
+
+    /**
+     * <p>Returns a stream of the lines in the given single-byte text file, each of which is a {@code CharSequence}
+     * view over a memory mapping of the file.</p>
+     *
+     * <p>No {@code String} is created per line, and the bytes are not decoded: each byte is a {@code char} as in
+     * ISO-8859-1, which is exact for US-ASCII and ISO-8859-1 files. A view can be parsed in place, or turned into a
+     * {@code String} by {@code toString()}. Views do not implement {@code equals} or {@code hashCode}. Lines are
+     * terminated by {@code "\n"} or {@code "\r\n"}, and the stream splits well in parallel as
+     * {@link #lines(java.nio.file.Path, java.nio.charset.Charset)} does.</p>
+     *
+     * @param path the text file.
+     * @return a stream of the views of the lines in the file.
+     * @throws IOException          if the file cannot be mapped.
+     * @throws NullPointerException if {@code path} is null.
+     */
+    public static Stream<CharSequence> lineViews(final Path path) throws IOException {
+        Objects.requireNonNull(path, "path is null");
+        final MappedRegion region = MappedRegion.map(path, 1, ByteOrder.BIG_ENDIAN);
+        return StreamSupport.stream(new LineSpliterator.Viewing(region, (byte) '\n', true, 0, region.size()), false);
+    }
+
+    private static boolean isAsciiCompatible(final Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    private static MappedRegion mapElements(final Path path, final int width, final ByteOrder order)
+            throws IOException {
+        Objects.requireNonNull(path, "path is null");
+        Objects.requireNonNull(order, "order is null");
+        return MappedRegion.mapElements(path, width, order);
+    }
+
+    /**
+     * <p>Collects the elements of the given stream into an immutable {@code List}, with applying a mapper
+     * {@code Function} to each elements, in encounter order.</p>
+     *
+     * <p>Unlike {@link MoreCollectors#toImmutableListMapped(java.util.function.Function)}, this method can see the
+     * source of the stream: if it knows its exact size (e.g. a {@code List} or an array, possibly followed by
+     * {@code map} or {@code sorted}), the backing array is allocated exactly once, even in parallel. Otherwise the
+     * elements are buffered in chunks and copied once into an exact-length array.</p>
+     *
+     * @param <T>    the type of the stream elements.
+     * @param <R>    the type of elements accepted by list.
+     * @param stream the stream to be collected.
+     * @param mapper a function to be applied to the elements.
+     * @return an immutable {@code List} of the mapped elements.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static <T, R> List<R> toImmutableList(final Stream<T> stream, final Function<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(mapper, "mapper is null");
+        return CompactList.wrap(stream.map(mapper).toArray());
+    }
+
+    /**
+     * <p>Returns a stream of the elements of the given stream whose keys, extracted by {@code keyMapper}, have not
+     * been seen before.</p>
+     *
+     * <p>Unlike {@code Stream.distinct()}, only the keys are retained, in a concurrent set which is safe under
+     * {@code parallel()}. In a sequential stream the first element of each key is kept; in a parallel stream, which
+     * element of a key is kept is unspecified. Keys may be null.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;Emp&gt; onePerDept = distinctBy(emps, Emp::dept);</code></pre>
+     *
+     * @param <T>       the type of the stream elements.
+     * @param <K>       the type of the keys.
+     * @param stream    the stream to be deduplicated.
+     * @param keyMapper a function to extract the key of the elements.
+     * @return a stream of the elements with distinct keys.
+     * @throws NullPointerException if any of arguments is null.
+     * @see #distinctByInt(Stream, ToIntFunction)
+     * @see #distinctAdjacentBy(Stream, Function)
+     * @see #distinctRecentlyBy(Stream, Function, int)
+     * @see #distinctApproximatelyBy(Stream, Function, long, double)
+     */
+    public static <T, K> Stream<T> distinctBy(final Stream<T> stream, final Function<? super T, ? extends K> keyMapper) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        final Set<Object> seen = ConcurrentHashMap.newKeySet();
+        return stream.filter(e -> {
+            final K key = keyMapper.apply(e);
+            return seen.add(key == null ? NULL_KEY : key);
         });
     }
+
+    /**
+     * <p>Same as {@link #distinctBy(Stream, Function)}, but for {@code int} keys, which are kept unboxed in a striped
+     * concurrent open-addressing set.</p>
+     *
+     * @param <T>       the type of the stream elements.
+     * @param stream    the stream to be deduplicated.
+     * @param keyMapper a function to extract the {@code int} key of the elements.
+     * @return a stream of the elements with distinct keys.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static <T> Stream<T> distinctByInt(final Stream<T> stream, final ToIntFunction<? super T> keyMapper) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        final StripedLongSet seen = new StripedLongSet();
+        return stream.filter(e -> seen.add(keyMapper.applyAsInt(e)));
+    }
+
+    /**
+     * <p>Same as {@link #distinctBy(Stream, Function)}, but for {@code long} keys, which are kept unboxed in a
+     * striped concurrent open-addressing set.</p>
+     *
+     * @param <T>       the type of the stream elements.
+     * @param stream    the stream to be deduplicated.
+     * @param keyMapper a function to extract the {@code long} key of the elements.
+     * @return a stream of the elements with distinct keys.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static <T> Stream<T> distinctByLong(final Stream<T> stream, final ToLongFunction<? super T> keyMapper) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        final StripedLongSet seen = new StripedLongSet();
+        return stream.filter(e -> seen.add(keyMapper.applyAsLong(e)));
+    }
+
+    /**
+     * <p>Returns a stream of the first element of each run of adjacent elements sharing the same key, which is the
+     * same as {@link #distinctBy(Stream, Function)} if the given stream is sorted or clustered by the key.</p>
+     *
+     * <p>Only the last key is retained, so the memory is constant and the stream may be infinite. The elements are
+     * pulled sequentially.</p>
+     *
+     * @param <T>       the type of the stream elements.
+     * @param <K>       the type of the keys.
+     * @param stream    the stream clustered by the key.
+     * @param keyMapper a function to extract the key of the elements.
+     * @return a stream of the first elements of the runs.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static <T, K> Stream<T> distinctAdjacentBy(final Stream<T> stream,
+                                                      final Function<? super T, ? extends K> keyMapper) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        return StreamSupport.stream(new DistinctAdjacentSpliterator<>(stream.spliterator(), keyMapper), false)
+                            .onClose(stream::close);
+    }
+
+    /**
+     * <p>Returns a stream of the elements of the given stream whose keys are not among the {@code maxSize} most
+     * recently seen ones.</p>
+     *
+     * <p>The memory is bounded by {@code maxSize} keys, which suits infinite streams where duplicates arrive close
+     * to each other. The keys are striped by hash into independently locked LRU maps, so it is safe under
+     * {@code parallel()}, and the eviction is least-recently-seen within each stripe.</p>
+     *
+     * @param <T>       the type of the stream elements.
+     * @param <K>       the type of the keys.
+     * @param stream    the stream to be deduplicated.
+     * @param keyMapper a function to extract the key of the elements.
+     * @param maxSize   the number of the recently seen keys to remember.
+     * @return a stream of the elements whose keys have not been seen recently.
+     * @throws NullPointerException     if any of arguments is null.
+     * @throws IllegalArgumentException if {@code maxSize} is not positive.
+     */
+    public static <T, K> Stream<T> distinctRecentlyBy(final Stream<T> stream,
+                                                      final Function<? super T, ? extends K> keyMapper,
+                                                      final int maxSize) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0.");
+        }
+        final RecentKeys seen = new RecentKeys(maxSize);
+        return stream.filter(e -> seen.add(keyMapper.apply(e)));
+    }
+
+    /**
+     * <p>Returns a stream of the elements of the given stream whose keys have probably not been seen before,
+     * using a Bloom filter of a fixed size.</p>
+     *
+     * <p>The filter is sized for {@code expectedInsertions} distinct keys so that a new key is wrongly taken as seen,
+     * and its element dropped, with probability {@code fpp}; beyond that number the rate grows. Its bits are set
+     * lock-free, so it is safe under {@code parallel()}, though two threads adding the same new key at the same
+     * time may both keep their element.</p>
+     *
+     * <p>The keys are probed by their 32-bit {@code hashCode}, so two keys with the same hash code are never told
+     * apart: after {@code n} distinct keys, a new key is dropped with probability at least about {@code n / 2^32}
+     * however large the filter is. An {@code fpp} below that floor, e.g. 0.001 for more than about 4 million keys,
+     * is not achievable; use {@link #distinctApproximatelyBy(Stream, Function, ToLongFunction, long, double)} with
+     * a 64-bit hash of the keys instead.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;Event&gt; mostlyUnique = distinctApproximatelyBy(events, Event::id, 1_000_000L, 0.01);</code></pre>
+     *
+     * @param <T>                the type of the stream elements.
+     * @param <K>                the type of the keys.
+     * @param stream             the stream to be deduplicated.
+     * @param keyMapper          a function to extract the key of the elements.
+     * @param expectedInsertions the expected number of distinct keys.
+     * @param fpp                the desired false positive probability.
+     * @return a stream of the elements whose keys have probably not been seen.
+     * @throws NullPointerException     if any of arguments is null.
+     * @throws IllegalArgumentException if {@code expectedInsertions} is not positive, or {@code fpp} is not between 0
+     *                                  and 1 exclusive.
+     */
+    public static <T, K> Stream<T> distinctApproximatelyBy(final Stream<T> stream,
+                                                           final Function<? super T, ? extends K> keyMapper,
+                                                           final long expectedInsertions,
+                                                           final double fpp) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be greater than 0.");
+        }
+        if (!(fpp > 0 && fpp < 1)) {
+            throw new IllegalArgumentException("fpp must be between 0 and 1 exclusive.");
+        }
+        final BloomFilter seen = new BloomFilter(expectedInsertions, fpp);
+        return stream.filter(e -> seen.add(keyMapper.apply(e)));
+    }
+
+    /**
+     * <p>Same as {@link #distinctApproximatelyBy(Stream, Function, long, double)}, but probes the Bloom filter with
+     * a 64-bit hash of the keys instead of their {@code hashCode}, so that the false positive probability is not
+     * bounded below by collisions of 32-bit hash codes.</p>
+     *
+     * <p>The quality of {@code keyHash} limits the achievable rate: keys with equal 64-bit hashes are never told
+     * apart. The hash does not need to be well mixed, as it is mixed again before probing.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;Event&gt; mostlyUnique = distinctApproximatelyBy(events, Event::uuid,
+     *     uuid -&gt; uuid.getMostSignificantBits() * 31 + uuid.getLeastSignificantBits(), 100_000_000L, 0.001);</code></pre>
+     *
+     * @param <T>                the type of the stream elements.
+     * @param <K>                the type of the keys.
+     * @param stream             the stream to be deduplicated.
+     * @param keyMapper          a function to extract the key of the elements.
+     * @param keyHash            a function to compute the 64-bit hash of the keys.
+     * @param expectedInsertions the expected number of distinct keys.
+     * @param fpp                the desired false positive probability.
+     * @return a stream of the elements whose keys have probably not been seen.
+     * @throws NullPointerException     if any of arguments is null.
+     * @throws IllegalArgumentException if {@code expectedInsertions} is not positive, or {@code fpp} is not between 0
+     *                                  and 1 exclusive.
+     */
+    public static <T, K> Stream<T> distinctApproximatelyBy(final Stream<T> stream,
+                                                           final Function<? super T, ? extends K> keyMapper,
+                                                           final ToLongFunction<? super K> keyHash,
+                                                           final long expectedInsertions,
+                                                           final double fpp) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(keyMapper, "keyMapper is null");
+        Objects.requireNonNull(keyHash, "keyHash is null");
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be greater than 0.");
+        }
+        if (!(fpp > 0 && fpp < 1)) {
+            throw new IllegalArgumentException("fpp must be between 0 and 1 exclusive.");
+        }
+        final BloomFilter seen = new BloomFilter(expectedInsertions, fpp);
+        return stream.filter(e -> seen.addHash(keyHash.applyAsLong(keyMapper.apply(e))));
+    }
+
+    /**
+     * <p>Collects the elements of the given stream with a short-circuiting collector, pulling them one by one and
+     * stopping as soon as the result container is saturated.</p>
+     *
+     * <p>Unlike {@code stream.collect(collector)}, the rest of the source is never pulled once the collector needs
+     * no more elements, which saves the work (and I/O) of upstream stages. The elements are pulled sequentially
+     * in encounter order, even if the stream is parallel. The stream is consumed but not closed.</p>
+     * <pre class="java">Example:
+     * <code class="java">Map&lt;Dept, List&lt;Emp&gt;&gt; firstTen = collectUntil(emps, groupingLimit(Emp::dept, 10, 12));</code></pre>
+     *
+     * @param <T>       the type of the stream elements.
+     * @param <A>       the mutable accumulation type of the collector.
+     * @param <R>       the result type of the collector.
+     * @param stream    the stream to be collected.
+     * @param collector the short-circuiting collector.
+     * @return the result of the collector.
+     * @throws NullPointerException if any of arguments is null.
+     * @see MoreCollectors#firstN(int)
+     * @see MoreCollectors#groupingLimit(Function, int, int)
+     * @see MoreCollectors#anyMatchPerGroup(Function, java.util.function.Predicate, int)
+     */
+    public static <T, A, R> R collectUntil(final Stream<T> stream,
+                                           final ShortCircuitingCollector<? super T, A, R> collector) {
+        Objects.requireNonNull(collector, "collector is null");
+        return collectUntil(stream, collector, collector::isSaturated);
+    }
+
+    /**
+     * <p>Collects the elements of the given stream, pulling them one by one and stopping as soon as the result
+     * container satisfies {@code saturated}.</p>
+     *
+     * @param <T>       the type of the stream elements.
+     * @param <A>       the mutable accumulation type of the collector.
+     * @param <R>       the result type of the collector.
+     * @param stream    the stream to be collected.
+     * @param collector the collector.
+     * @param saturated a predicate which tells that the container needs no more elements.
+     * @return the result of the collector.
+     * @throws NullPointerException if any of arguments is null.
+     * @see #collectUntil(Stream, ShortCircuitingCollector)
+     */
+    public static <T, A, R> R collectUntil(final Stream<T> stream,
+                                           final Collector<? super T, A, R> collector,
+                                           final Predicate<? super A> saturated) {
+        Objects.requireNonNull(stream, "stream is null");
+        Objects.requireNonNull(collector, "collector is null");
+        Objects.requireNonNull(saturated, "saturated is null");
+        final A container = collector.supplier().get();
+        final BiConsumer<A, ? super T> accumulator = collector.accumulator();
+        final Consumer<T> sink = e -> accumulator.accept(container, e);
+        final Spliterator<T> spliterator = stream.spliterator();
+        while (!saturated.test(container) && spliterator.tryAdvance(sink)) {
+            // pull until saturated
+        }
+        return collector.finisher().apply(container);
+    }
+
+    /**
+     * <p>Returns a stream which reports the elements flowing through it, and how it is split, to the
+     * {@link StageMetrics} of the given name.</p>
+     *
+     * <p>The returned stream is lazy and keeps the characteristics and parallelism of the given stream. Elements are
+     * counted into striped counters, and bulk traversals are timed to compute throughput. Splits are counted per
+     * thread, which shows how evenly a parallel pipeline is spread over fork-join workers.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;Foo&gt; foos = instrumented(source.parallel(), "foos");
+     *foos.filter(...).collect(...);
+     *StageMetrics.of("foos").getSplitCountPerThread();</code></pre>
+     *
+     * @param <T>    the type of the stream elements.
+     * @param stream the stream to be instrumented.
+     * @param name   the name of the stage, which is also the JMX name of its metrics. The metrics are kept
+     *               until {@link StageMetrics#remove(String)}.
+     * @return a stream of the same elements as the given stream.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    public static <T> Stream<T> instrumented(final Stream<T> stream, final String name) {
+        Objects.requireNonNull(stream, "stream is null");
+        final StageMetrics metrics = StageMetrics.of(name);
+        return StreamSupport.stream(new InstrumentedSpliterator<>(stream.spliterator(), metrics), stream.isParallel())
+                            .onClose(stream::close);
+    }
+
+    /**
+     * <p>Merges the given streams, each of which must be already sorted by {@code comparator}, into a single sorted
+     * stream.</p>
+     *
+     * <p>The merge is lazy and backed by a tree of losers, so it buffers only one element per source and needs
+     * {@code O(log k)} comparisons per element for {@code k} sources. Elements that compare equal are emitted in the
+     * order of the sources in the given collection. Closing the returned stream closes all the sources.</p>
+     * <pre class="java">Example:
+     * <code class="java">Stream&lt;Emp&gt; all = mergeSorted(asList(shard1, shard2, shard3), comparingInt(Emp::salary));</code></pre>
+     *
+     * @param <T>        the type of the stream elements.
+     * @param streams    the sorted streams to be merged.
+     * @param comparator the comparator by which every source is sorted.
+     * @return a sorted stream which contains all the elements of the given streams.
+     * @throws NullPointerException if any of arguments or any of the streams is null.
+     */
+    public static <T> Stream<T> mergeSorted(final Collection<? extends Stream<T>> streams,
+                                            final Comparator<? super T> comparator) {
+        Objects.requireNonNull(streams, "streams is null");
+        Objects.requireNonNull(comparator, "comparator is null");
+        final List<Spliterator<T>> sources = new ArrayList<>(streams.size());
+        for (final Stream<T> stream : streams) {
+            sources.add(Objects.requireNonNull(stream, "stream is null").spliterator());
+        }
+        return StreamSupport.stream(new LoserTree.OfRef<>(sources, comparator), false).onClose(closeAll(streams));
+    }
+
+    /**
+     * <p>Merges the given {@code IntStream}s, each of which must be already sorted in ascending order, into a single
+     * sorted stream.</p>
+     *
+     * @param streams the sorted streams to be merged.
+     * @return a sorted stream which contains all the elements of the given streams.
+     * @throws NullPointerException if {@code streams} or any of the streams is null.
+     * @see #mergeSorted(java.util.Collection, java.util.Comparator)
+     */
+    public static IntStream mergeSortedInts(final Collection<? extends IntStream> streams) {
+        Objects.requireNonNull(streams, "streams is null");
+        final List<Spliterator.OfInt> sources = new ArrayList<>(streams.size());
+        for (final IntStream stream : streams) {
+            sources.add(Objects.requireNonNull(stream, "stream is null").spliterator());
+        }
+        return StreamSupport.intStream(new LoserTree.OfInt(sources), false).onClose(closeAll(streams));
+    }
+
+    /**
+     * <p>Merges the given {@code LongStream}s, each of which must be already sorted in ascending order, into a single
+     * sorted stream.</p>
+     *
+     * @param streams the sorted streams to be merged.
+     * @return a sorted stream which contains all the elements of the given streams.
+     * @throws NullPointerException if {@code streams} or any of the streams is null.
+     * @see #mergeSorted(java.util.Collection, java.util.Comparator)
+     */
+    public static LongStream mergeSortedLongs(final Collection<? extends LongStream> streams) {
+        Objects.requireNonNull(streams, "streams is null");
+        final List<Spliterator.OfLong> sources = new ArrayList<>(streams.size());
+        for (final LongStream stream : streams) {
+            sources.add(Objects.requireNonNull(stream, "stream is null").spliterator());
+        }
+        return StreamSupport.longStream(new LoserTree.OfLong(sources), false).onClose(closeAll(streams));
+    }
+
+    private static Runnable closeAll(final Collection<? extends BaseStream<?, ?>> streams) {
+        final List<BaseStream<?, ?>> toBeClosed = new ArrayList<>(streams);
+        return () -> {
+            RuntimeException failure = null;
+            for (final BaseStream<?, ?> stream : toBeClosed) {
+                try {
+                    stream.close();
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        };
+    }
 }
@@ -0,0 +1,278 @@
+package net.exoego.stream;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>An append-only buffer of primitives of a fixed width, stored in chunks of direct memory outside of the Java
+ * heap.</p>
+ *
+ * <p>Chunks start small and double up to 1MB, so that many small buffers (one per group, say) stay cheap while a
+ * large one needs few chunks. Appending another buffer moves its chunks over without copying. The stream built
+ * from a buffer releases the chunks when it is closed; the native memory is then reclaimed by the cleaner of each
+ * chunk, and traversing the stream afterwards fails instead of reading freed memory.</p>
+ */
+final class OffHeapBuffer {
+    private static final int FIRST_CHUNK_BYTES = 1 << 10;
+    private static final int MAX_CHUNK_BYTES = 1 << 20;
+    private static final int MIN_SPLIT_ELEMENTS = 1 << 10;
+
+    private final int width;
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount;
+    private ByteBuffer current;
+    private int nextChunkBytes = FIRST_CHUNK_BYTES;
+
+    OffHeapBuffer(final int width) {
+        this.width = width;
+    }
+
+    private ByteBuffer writable() {
+        if (current == null || current.remaining() < width) {
+            current = ByteBuffer.allocateDirect(nextChunkBytes).order(ByteOrder.nativeOrder());
+            nextChunkBytes = Math.min(nextChunkBytes * 2, MAX_CHUNK_BYTES);
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = current;
+        }
+        return current;
+    }
+
+    void putInt(final int value) {
+        writable().putInt(value);
+    }
+
+    void putLong(final long value) {
+        writable().putLong(value);
+    }
+
+    void putDouble(final double value) {
+        writable().putDouble(value);
+    }
+
+    /**
+     * Moves the chunks of {@code other}, which must not be used anymore, to the end of this buffer.
+     */
+    OffHeapBuffer append(final OffHeapBuffer other) {
+        if (other.chunkCount == 0) {
+            return this;
+        }
+        if (chunkCount + other.chunkCount > chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(chunks.length * 2, chunkCount + other.chunkCount));
+        }
+        System.arraycopy(other.chunks, 0, chunks, chunkCount, other.chunkCount);
+        chunkCount += other.chunkCount;
+        current = other.current;
+        nextChunkBytes = Math.max(nextChunkBytes, other.nextChunkBytes);
+        return this;
+    }
+
+    void release() {
+        chunks = null;
+        current = null;
+    }
+
+    IntStream toIntStream() {
+        final Snapshot snapshot = new Snapshot(this);
+        return StreamSupport.intStream(new IntSpliterator(snapshot, 0), false).onClose(snapshot::release);
+    }
+
+    LongStream toLongStream() {
+        final Snapshot snapshot = new Snapshot(this);
+        return StreamSupport.longStream(new LongSpliterator(snapshot, 0), false).onClose(snapshot::release);
+    }
+
+    DoubleStream toDoubleStream() {
+        final Snapshot snapshot = new Snapshot(this);
+        return StreamSupport.doubleStream(new DoubleSpliterator(snapshot, 0), false).onClose(snapshot::release);
+    }
+
+    /**
+     * The chunks of a finished buffer, with the index of the first element of each chunk. The spliterators reach the
+     * chunks only through the snapshot, so releasing it drops the last reference to them.
+     */
+    private static final class Snapshot {
+        private final OffHeapBuffer buffer;
+        private final long[] firstIndex;
+        private volatile ByteBuffer[] chunks;
+
+        Snapshot(final OffHeapBuffer buffer) {
+            this.buffer = buffer;
+            final ByteBuffer[] chunks = Arrays.copyOf(buffer.chunks, buffer.chunkCount);
+            this.firstIndex = new long[chunks.length + 1];
+            for (int i = 0; i < chunks.length; i++) {
+                firstIndex[i + 1] = firstIndex[i] + chunks[i].position() / buffer.width;
+            }
+            this.chunks = chunks;
+        }
+
+        long size() {
+            return firstIndex[firstIndex.length - 1];
+        }
+
+        int chunkOf(final long index) {
+            final int chunkCount = firstIndex.length - 1;
+            final int found = Arrays.binarySearch(firstIndex, 0, chunkCount, index);
+            int chunk = found >= 0 ? found : -found - 2;
+            while (chunk + 1 < chunkCount && firstIndex[chunk + 1] <= index) {
+                chunk++;
+            }
+            return chunk;
+        }
+
+        ByteBuffer chunk(final int chunk) {
+            final ByteBuffer[] chunks = this.chunks;
+            if (chunks == null) {
+                throw new IllegalStateException("stream has been closed and its off-heap buffer released");
+            }
+            return chunks[chunk];
+        }
+
+        boolean isReleased() {
+            return chunks == null;
+        }
+
+        void release() {
+            chunks = null;
+            buffer.release();
+        }
+    }
+
+    abstract static class BaseSpliterator<S extends Spliterator<?>> {
+        final Snapshot snapshot;
+        final int width;
+        long index;
+        long fence;
+        int chunk;
+
+        BaseSpliterator(final Snapshot snapshot, final long index) {
+            this.snapshot = snapshot;
+            this.width = snapshot.buffer.width;
+            this.index = index;
+            this.fence = snapshot.size();
+            this.chunk = snapshot.chunkOf(index);
+        }
+
+        abstract S newSpliterator(long index);
+
+        /**
+         * Returns true if the stream has been closed, and so this no longer reaches the chunks.
+         */
+        final boolean isReleased() {
+            return snapshot.isReleased();
+        }
+
+        public S trySplit() {
+            final long mid = (index + fence) >>> 1;
+            if (mid - index < MIN_SPLIT_ELEMENTS) {
+                return null;
+            }
+            final S prefix = newSpliterator(index);
+            ((BaseSpliterator<?>) prefix).fence = mid;
+            index = mid;
+            chunk = snapshot.chunkOf(mid);
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE
+                    | Spliterator.NONNULL;
+        }
+
+        /**
+         * Returns the byte offset of the element at {@code index} in the current chunk, moving to the next chunk if
+         * needed.
+         */
+        final int offsetOfNext() {
+            while (index >= snapshot.firstIndex[chunk + 1]) {
+                chunk++;
+            }
+            return (int) (index - snapshot.firstIndex[chunk]) * width;
+        }
+    }
+
+    private static final class IntSpliterator extends BaseSpliterator<Spliterator.OfInt> implements Spliterator.OfInt {
+        IntSpliterator(final Snapshot snapshot, final long index) {
+            super(snapshot, index);
+        }
+
+        @Override
+        Spliterator.OfInt newSpliterator(final long index) {
+            return new IntSpliterator(snapshot, index);
+        }
+
+        @Override
+        public boolean tryAdvance(final IntConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            final int offset = offsetOfNext();
+            final ByteBuffer bytes = snapshot.chunk(chunk);
+            index++;
+            action.accept(bytes.getInt(offset));
+            return true;
+        }
+    }
+
+    private static final class LongSpliterator extends BaseSpliterator<Spliterator.OfLong>
+            implements Spliterator.OfLong {
+        LongSpliterator(final Snapshot snapshot, final long index) {
+            super(snapshot, index);
+        }
+
+        @Override
+        Spliterator.OfLong newSpliterator(final long index) {
+            return new LongSpliterator(snapshot, index);
+        }
+
+        @Override
+        public boolean tryAdvance(final LongConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            final int offset = offsetOfNext();
+            final ByteBuffer bytes = snapshot.chunk(chunk);
+            index++;
+            action.accept(bytes.getLong(offset));
+            return true;
+        }
+    }
+
+    private static final class DoubleSpliterator extends BaseSpliterator<Spliterator.OfDouble>
+            implements Spliterator.OfDouble {
+        DoubleSpliterator(final Snapshot snapshot, final long index) {
+            super(snapshot, index);
+        }
+
+        @Override
+        Spliterator.OfDouble newSpliterator(final long index) {
+            return new DoubleSpliterator(snapshot, index);
+        }
+
+        @Override
+        public boolean tryAdvance(final DoubleConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            final int offset = offsetOfNext();
+            final ByteBuffer bytes = snapshot.chunk(chunk);
+            index++;
+            action.accept(bytes.getDouble(offset));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package net.exoego.stream;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * <p>Pulls the items of a {@code Flow.Publisher} as a {@code Spliterator}.</p>
+ *
+ * <p>The publisher is subscribed on the first traversal. At most {@code prefetch} items are requested ahead of the
+ * consumer, and the demand is replenished in batches once three quarters of them have been consumed, so the queue
+ * between the publisher and the consumer never holds more than {@code prefetch} items.</p>
+ */
+final class PublisherSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements Flow.Subscriber<T> {
+    private static final Object COMPLETE = new Object();
+
+    private final Flow.Publisher<? extends T> publisher;
+    private final int prefetch;
+    private final int replenishThreshold;
+    private final BlockingQueue<Object> queue;
+    private volatile Flow.Subscription subscription;
+    private boolean subscribed;
+    private boolean done;
+    private int consumed;
+
+    PublisherSpliterator(final Flow.Publisher<? extends T> publisher, final int prefetch) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.publisher = publisher;
+        this.prefetch = prefetch;
+        this.replenishThreshold = prefetch - (prefetch >> 2);
+        this.queue = new ArrayBlockingQueue<>(prefetch + 1);
+    }
+
+    private static final class Failure {
+        private final Throwable cause;
+
+        Failure(final Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(prefetch);
+    }
+
+    @Override
+    public void onNext(final T item) {
+        if (!queue.offer(item)) {
+            subscription.cancel();
+            queue.clear();
+            queue.offer(new Failure(new IllegalStateException("publisher emitted more items than requested")));
+        }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        queue.offer(new Failure(throwable));
+    }
+
+    @Override
+    public void onComplete() {
+        queue.offer(COMPLETE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        if (done) {
+            return false;
+        }
+        if (!subscribed) {
+            subscribed = true;
+            publisher.subscribe(this);
+        }
+        final Object signal;
+        try {
+            signal = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new CancellationException("interrupted while waiting for the publisher");
+        }
+        if (signal == COMPLETE) {
+            done = true;
+            return false;
+        }
+        if (signal instanceof Failure) {
+            done = true;
+            final Throwable cause = ((Failure) signal).cause;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+        if (++consumed >= replenishThreshold) {
+            subscription.request(consumed);
+            consumed = 0;
+        }
+        action.accept((T) signal);
+        return true;
+    }
+
+    void cancel() {
+        done = true;
+        final Flow.Subscription s = subscription;
+        if (s != null) {
+            s.cancel();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package net.exoego.stream;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>A bounded, concurrent set of the most recently seen keys, striped by hash into independently locked
+ * access-ordered {@code LinkedHashMap}s, each of which evicts its least recently seen key when full.</p>
+ */
+final class RecentKeys {
+    private final Stripe[] stripes;
+    private final int mask;
+
+    RecentKeys(final int maxSize) {
+        final int count = Math.min(Striping.stripeCount(), Integer.highestOneBit(maxSize));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(maxSize / count + (i < maxSize % count ? 1 : 0));
+        }
+        this.mask = count - 1;
+    }
+
+    /**
+     * Marks the key as the most recently seen one, and returns true if it was not remembered.
+     */
+    boolean add(final Object key) {
+        final Stripe stripe = stripes[(CompactHashing.spread(key) >>> 16) & mask];
+        synchronized (stripe) {
+            return stripe.put(key, Boolean.TRUE) == null;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<Object, Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Object, Boolean> eldest) {
+            return size() > capacity;
+        }
+    }
+}
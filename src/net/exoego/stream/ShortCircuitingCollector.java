@@ -0,0 +1,81 @@
+package net.exoego.stream;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * <p>A {@code Collector} which can tell that its result container is saturated, i.e. accumulating more elements
+ * would not change the result any more.</p>
+ *
+ * <p>{@code Stream.collect} is not aware of saturation and still consumes the whole input, though a saturated
+ * container ignores further elements. {@link MoreStreams#collectUntil(java.util.stream.Stream,
+ * ShortCircuitingCollector)} stops pulling from the source as soon as the container is saturated.</p>
+ *
+ * @param <T> the type of input elements to the reduction operation.
+ * @param <A> the mutable accumulation type of the reduction operation.
+ * @param <R> the result type of the reduction operation.
+ */
+public interface ShortCircuitingCollector<T, A, R> extends Collector<T, A, R> {
+    /**
+     * Returns true if accumulating more elements into {@code container} would not change the result.
+     *
+     * @param container a result container of this collector.
+     * @return true if the container is saturated.
+     */
+    boolean isSaturated(A container);
+
+    /**
+     * Returns a short-circuiting collector which collects as {@code collector} does, and whose containers are
+     * saturated when {@code saturated} holds.
+     *
+     * @param <T>       the type of input elements to the reduction operation.
+     * @param <A>       the mutable accumulation type of the reduction operation.
+     * @param <R>       the result type of the reduction operation.
+     * @param collector the collector to be short-circuited.
+     * @param saturated a predicate which tells that a container is saturated.
+     * @return a short-circuiting collector.
+     * @throws NullPointerException if any of arguments is null.
+     */
+    static <T, A, R> ShortCircuitingCollector<T, A, R> of(final Collector<T, A, R> collector,
+                                                          final Predicate<? super A> saturated) {
+        Objects.requireNonNull(collector, "collector is null");
+        Objects.requireNonNull(saturated, "saturated is null");
+        return new ShortCircuitingCollector<T, A, R>() {
+            @Override
+            public boolean isSaturated(final A container) {
+                return saturated.test(container);
+            }
+
+            @Override
+            public Supplier<A> supplier() {
+                return collector.supplier();
+            }
+
+            @Override
+            public BiConsumer<A, T> accumulator() {
+                return collector.accumulator();
+            }
+
+            @Override
+            public BinaryOperator<A> combiner() {
+                return collector.combiner();
+            }
+
+            @Override
+            public Function<A, R> finisher() {
+                return collector.finisher();
+            }
+
+            @Override
+            public Set<Characteristics> characteristics() {
+                return collector.characteristics();
+            }
+        };
+    }
+}
@@ -0,0 +1,124 @@
+package net.exoego.stream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+
+/**
+ * <p>Implementations of the {@link ShortCircuitingCollector}s of {@link MoreCollectors}.</p>
+ */
+final class ShortCircuitingCollectors {
+    private ShortCircuitingCollectors() {}
+
+    static <T> ShortCircuitingCollector<T, ?, List<T>> firstN(final int n) {
+        return ShortCircuitingCollector.of(Collector.of(ArrayList::new, (List<T> list, T e) -> {
+            if (list.size() < n) {
+                list.add(e);
+            }
+        }, (left, right) -> {
+            addUpTo(left, right, n);
+            return left;
+        }, CompactList::copyOf), list -> list.size() >= n);
+    }
+
+    private static <T> void addUpTo(final List<T> left, final List<T> right, final int limit) {
+        final int count = Math.min(right.size(), limit - left.size());
+        if (count > 0) {
+            left.addAll(right.subList(0, count));
+        }
+    }
+
+    /**
+     * The groups of {@code groupingLimit}, with the number of groups which reached the limit.
+     */
+    private static final class LimitedGroups<K, T> {
+        final Map<K, List<T>> groups = new HashMap<>();
+        int full;
+
+        void add(final K key, final T element, final int limit) {
+            final List<T> group = groups.computeIfAbsent(key, k -> new ArrayList<>());
+            if (group.size() < limit) {
+                group.add(element);
+                if (group.size() == limit) {
+                    full++;
+                }
+            }
+        }
+
+        LimitedGroups<K, T> combine(final LimitedGroups<K, T> right, final int limit) {
+            for (final Map.Entry<K, List<T>> entry : right.groups.entrySet()) {
+                final List<T> group = groups.get(entry.getKey());
+                if (group == null) {
+                    groups.put(entry.getKey(), entry.getValue());
+                    if (entry.getValue().size() == limit) {
+                        full++;
+                    }
+                } else if (group.size() < limit) {
+                    addUpTo(group, entry.getValue(), limit);
+                    if (group.size() == limit) {
+                        full++;
+                    }
+                }
+            }
+            return this;
+        }
+
+        Map<K, List<T>> finish() {
+            groups.replaceAll((k, group) -> CompactList.copyOf(group));
+            return CompactMap.copyOf(groups);
+        }
+    }
+
+    static <T, K> ShortCircuitingCollector<T, ?, Map<K, List<T>>> groupingLimit(
+            final Function<? super T, ? extends K> keyMapper, final int limit, final int expectedGroups) {
+        return ShortCircuitingCollector.of(Collector.of(LimitedGroups<K, T>::new,
+                                                        (groups, e) -> groups.add(requireKey(keyMapper.apply(e)), e, limit),
+                                                        (left, right) -> left.combine(right, limit),
+                                                        LimitedGroups::finish),
+                                           groups -> groups.full >= expectedGroups);
+    }
+
+    /**
+     * The groups of {@code anyMatchPerGroup}, with the number of groups which found a match.
+     */
+    private static final class MatchedGroups<K> {
+        final Map<K, Boolean> groups = new HashMap<>();
+        int matched;
+
+        void add(final K key, final boolean match) {
+            final Boolean previous = groups.get(key);
+            if (previous == null || (match && !previous)) {
+                groups.put(key, match);
+                if (match) {
+                    matched++;
+                }
+            }
+        }
+
+        MatchedGroups<K> combine(final MatchedGroups<K> right) {
+            right.groups.forEach(this::add);
+            return this;
+        }
+    }
+
+    static <T, K> ShortCircuitingCollector<T, ?, Map<K, Boolean>> anyMatchPerGroup(
+            final Function<? super T, ? extends K> keyMapper,
+            final Predicate<? super T> predicate,
+            final int expectedGroups) {
+        return ShortCircuitingCollector.of(Collector.of(MatchedGroups<K>::new, (groups, e) -> {
+            final K key = requireKey(keyMapper.apply(e));
+            if (!Boolean.TRUE.equals(groups.groups.get(key))) {
+                groups.add(key, predicate.test(e));
+            }
+        }, MatchedGroups::combine, groups -> CompactMap.copyOf(groups.groups)), groups -> groups.matched >= expectedGroups);
+    }
+
+    private static <K> K requireKey(final K key) {
+        return Objects.requireNonNull(key, "element cannot be mapped to a null key");
+    }
+}
@@ -0,0 +1,119 @@
+package net.exoego.stream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * <p>The result container of {@link MoreCollectors#skewAwareGroupingBy(Function, Collector)}: a map from keys to
+ * groups, each of which counts the elements accumulated into it.</p>
+ *
+ * <p>A group which receives {@link #HOT_THRESHOLD} elements within one leaf task becomes hot. Combining two
+ * containers merges cold groups with the downstream combiner as {@code groupingBy} does, but only links the
+ * containers of a hot group into a list in encounter order, so that a giant group is not copied again at every
+ * level of the combine tree. The lists are folded once, left to right, when the result is finished.</p>
+ *
+ * <p>Hot keys are not pre-aggregated in per-thread containers shared across leaf tasks. Such a container would mix
+ * the elements of unrelated leaves and lose the encounter order which a downstream like {@code toList()} keeps
+ * under {@code groupingBy}. A leaf container is only ever accumulated by one thread, so it already pre-aggregates
+ * its hot keys locally; what is deferred to the final reduction is the merge of those partial results. Likewise,
+ * heavy hitters are detected by the exact count kept in each group rather than by a count-min sketch, since the map
+ * of a leaf already holds an entry per key.</p>
+ */
+final class SkewAwareGrouping<T, K, A> {
+    static final int HOT_THRESHOLD = 1 << 10;
+
+    private static final class Group<A> {
+        A container;
+        int count;
+        boolean hot;
+        /**
+         * The containers which precede {@code container} in encounter order, or null if there is none.
+         */
+        List<A> partials;
+
+        Group(final A container) {
+            this.container = container;
+        }
+    }
+
+    private final Map<K, Group<A>> groups = new HashMap<>();
+
+    static <T, K, A, D> Collector<T, ?, Map<K, D>> collector(final Function<? super T, ? extends K> keyMapper,
+                                                             final Collector<? super T, A, D> downstream) {
+        final Supplier<A> supplier = downstream.supplier();
+        final BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+        final BinaryOperator<A> combiner = downstream.combiner();
+        final Function<A, D> finisher = downstream.finisher();
+        return Collector.of(SkewAwareGrouping<T, K, A>::new,
+                            (grouping, e) -> grouping.accumulate(keyMapper, supplier, accumulator, e),
+                            (left, right) -> left.combine(right, combiner),
+                            grouping -> grouping.finish(combiner, finisher));
+    }
+
+    private void accumulate(final Function<? super T, ? extends K> keyMapper,
+                            final Supplier<A> supplier,
+                            final BiConsumer<A, ? super T> accumulator,
+                            final T element) {
+        final K key = Objects.requireNonNull(keyMapper.apply(element), "element cannot be mapped to a null key");
+        Group<A> group = groups.get(key);
+        if (group == null) {
+            group = new Group<>(supplier.get());
+            groups.put(key, group);
+        }
+        accumulator.accept(group.container, element);
+        if (!group.hot && ++group.count >= HOT_THRESHOLD) {
+            group.hot = true;
+        }
+    }
+
+    private SkewAwareGrouping<T, K, A> combine(final SkewAwareGrouping<T, K, A> right, final BinaryOperator<A> combiner) {
+        for (final Map.Entry<K, Group<A>> entry : right.groups.entrySet()) {
+            final Group<A> r = entry.getValue();
+            final Group<A> l = groups.putIfAbsent(entry.getKey(), r);
+            if (l == null) {
+                continue;
+            }
+            if (l.hot || r.hot) {
+                final List<A> partials = l.partials != null ? l.partials : new ArrayList<>();
+                partials.add(l.container);
+                if (r.partials != null) {
+                    partials.addAll(r.partials);
+                }
+                l.partials = partials;
+                l.container = r.container;
+                l.hot = true;
+            } else {
+                l.container = combiner.apply(l.container, r.container);
+                l.count += r.count;
+                l.hot = l.count >= HOT_THRESHOLD;
+            }
+        }
+        return this;
+    }
+
+    private <D> Map<K, D> finish(final BinaryOperator<A> combiner, final Function<A, D> finisher) {
+        final Map<K, D> result = new HashMap<>((int) (groups.size() / 0.75f) + 1);
+        for (final Map.Entry<K, Group<A>> entry : groups.entrySet()) {
+            final Group<A> group = entry.getValue();
+            A container = group.container;
+            if (group.partials != null) {
+                final List<A> partials = group.partials;
+                A folded = partials.get(0);
+                for (int i = 1; i < partials.size(); i++) {
+                    folded = combiner.apply(folded, partials.get(i));
+                }
+                container = combiner.apply(folded, container);
+            }
+            result.put(entry.getKey(), finisher.apply(container));
+        }
+        return result;
+    }
+}
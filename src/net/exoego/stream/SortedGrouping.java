@@ -0,0 +1,96 @@
+package net.exoego.stream;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>A sort-based grouping engine: the elements are buffered as they come, sorted by key with
+ * {@code Arrays.parallelSort} when the result is finished, and each run of equal keys is reduced by the downstream
+ * collector in one sequential scan.</p>
+ *
+ * <p>Both sorts are stable, so the elements of a group reach the downstream collector in encounter order.</p>
+ */
+final class SortedGrouping {
+    private SortedGrouping() {}
+
+    private static final class Keyed<K, T> {
+        final K key;
+        final T element;
+
+        Keyed(final K key, final T element) {
+            this.key = key;
+            this.element = element;
+        }
+    }
+
+    private static <T> Collector<T, ?, List<T>> buffering() {
+        return Collector.of(ArrayList::new, List::add, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    static <T, K, A, V> Collector<T, ?, Stream<Entry<K, V>>> byComparator(
+            final Function<? super T, ? extends K> keyMapper,
+            final Comparator<? super K> comparator,
+            final Collector<? super T, A, V> downstream) {
+        return Collectors.collectingAndThen(SortedGrouping.<T>buffering(), elements -> {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            final Keyed<K, T>[] keyed = new Keyed[elements.size()];
+            Arrays.parallelSetAll(keyed, i -> {
+                final T element = elements.get(i);
+                return new Keyed<>(keyMapper.apply(element), element);
+            });
+            Arrays.parallelSort(keyed, (a, b) -> comparator.compare(a.key, b.key));
+
+            final Supplier<A> supplier = downstream.supplier();
+            final BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+            final Function<A, V> finisher = downstream.finisher();
+            final List<Entry<K, V>> groups = new ArrayList<>();
+            for (int start = 0, end; start < keyed.length; start = end) {
+                final K key = keyed[start].key;
+                final A container = supplier.get();
+                for (end = start; end < keyed.length && comparator.compare(key, keyed[end].key) == 0; end++) {
+                    accumulator.accept(container, keyed[end].element);
+                }
+                groups.add(new SimpleImmutableEntry<>(key, finisher.apply(container)));
+            }
+            return groups.stream();
+        });
+    }
+
+    static <T, A, V> Collector<T, ?, Stream<Entry<Integer, V>>> byInt(final ToIntFunction<? super T> keyMapper,
+                                                                      final Collector<? super T, A, V> downstream) {
+        return Collectors.collectingAndThen(SortedGrouping.<T>buffering(), elements -> {
+            // the key in the high half keeps the signed order, and the index in the low half keeps the sort stable.
+            final long[] packed = new long[elements.size()];
+            Arrays.parallelSetAll(packed, i -> ((long) keyMapper.applyAsInt(elements.get(i)) << 32) | i);
+            Arrays.parallelSort(packed);
+
+            final Supplier<A> supplier = downstream.supplier();
+            final BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+            final Function<A, V> finisher = downstream.finisher();
+            final List<Entry<Integer, V>> groups = new ArrayList<>();
+            for (int start = 0, end; start < packed.length; start = end) {
+                final int key = (int) (packed[start] >> 32);
+                final A container = supplier.get();
+                for (end = start; end < packed.length && (int) (packed[end] >> 32) == key; end++) {
+                    accumulator.accept(container, elements.get((int) packed[end]));
+                }
+                groups.add(new SimpleImmutableEntry<>(key, finisher.apply(container)));
+            }
+            return groups.stream();
+        });
+    }
+}
@@ -0,0 +1,242 @@
+package net.exoego.stream;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * <p>Counters and timings of an instrumented stream stage or collector, shared by every stage of the same name.</p>
+ *
+ * <p>All the counters are striped {@link LongAdder}s, so that fork-join workers running the same stage in parallel
+ * do not contend on a single memory location. Metrics are created on first use and registered to the platform MBean
+ * server as {@code net.exoego.stream:type=Stage,name=<stage name>}.</p>
+ *
+ * <p>Metrics are kept until {@link #remove(String) removed}, so the stage names should come from a small fixed set,
+ * or the metrics of a stage should be removed once it is no longer of interest. Never use a per-request or
+ * otherwise unbounded value as the name of a stage.</p>
+ * <pre class="java"><code class="java">Stream&lt;Foo&gt; foos = MoreStreams.instrumented(source.parallel(), "foos");
+ *Map&lt;Bar, List&lt;Foo&gt;&gt; map = foos.collect(MoreCollectors.instrumented(groupingBy(Foo::bar), "foos-by-bar"));
+ *StageMetrics.of("foos-by-bar").getGroupCount();</code></pre>
+ *
+ * @see MoreStreams#instrumented(java.util.stream.Stream, String)
+ * @see MoreCollectors#instrumented(java.util.stream.Collector, String)
+ */
+public final class StageMetrics implements StageMetricsMXBean {
+    private static final ConcurrentMap<String, StageMetrics> REGISTRY = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final LongAdder elements = new LongAdder();
+    private final LongAdder splits = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> splitsPerThread = new ConcurrentHashMap<>();
+    private final LongAdder timedElements = new LongAdder();
+    private final LongAdder traversalNanos = new LongAdder();
+    private final LongAdder containers = new LongAdder();
+    private final LongAdder combines = new LongAdder();
+    private final LongAdder combineNanos = new LongAdder();
+    private final LongAdder finishes = new LongAdder();
+    private final LongAdder finishNanos = new LongAdder();
+    private final LongAdder groups = new LongAdder();
+    private final AtomicLong lastGroups = new AtomicLong(-1);
+
+    private StageMetrics(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the metrics of the given stage name, creating and registering them to JMX if absent.
+     *
+     * @param name the name of the stage.
+     * @return the metrics of the stage.
+     */
+    public static StageMetrics of(final String name) {
+        Objects.requireNonNull(name, "name is null");
+        final StageMetrics existing = REGISTRY.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        return REGISTRY.computeIfAbsent(name, n -> {
+            final StageMetrics metrics = new StageMetrics(n);
+            metrics.register();
+            return metrics;
+        });
+    }
+
+    /**
+     * Removes the metrics of the given stage name and unregisters them from JMX. Stages already instrumented keep
+     * updating the removed metrics, while stages instrumented afterwards get new ones.
+     *
+     * @param name the name of the stage.
+     * @return true if metrics of the name were removed.
+     */
+    public static boolean remove(final String name) {
+        Objects.requireNonNull(name, "name is null");
+        final boolean[] removed = new boolean[1];
+        REGISTRY.computeIfPresent(name, (n, metrics) -> {
+            metrics.unregister();
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName(name));
+        } catch (JMException | SecurityException ignored) {
+            // metrics stay readable through of(name) even if JMX is unavailable.
+        }
+    }
+
+    private void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName(name));
+        } catch (JMException | SecurityException ignored) {
+            // not registered if JMX was unavailable.
+        }
+    }
+
+    static ObjectName objectName(final String name) throws JMException {
+        return new ObjectName("net.exoego.stream:type=Stage,name=" + ObjectName.quote(name));
+    }
+
+    void recordElement() {
+        elements.increment();
+    }
+
+    void recordTraversal(final long count, final long nanos) {
+        elements.add(count);
+        timedElements.add(count);
+        traversalNanos.add(nanos);
+    }
+
+    void recordSplit() {
+        splits.increment();
+        splitsPerThread.computeIfAbsent(Thread.currentThread().getName(), t -> new LongAdder()).increment();
+    }
+
+    void recordContainer() {
+        containers.increment();
+    }
+
+    void recordCombine(final long nanos) {
+        combines.increment();
+        combineNanos.add(nanos);
+    }
+
+    void recordFinish(final long nanos, final Object result) {
+        finishes.increment();
+        finishNanos.add(nanos);
+        final long size;
+        if (result instanceof Map) {
+            size = ((Map<?, ?>) result).size();
+        } else if (result instanceof Collection) {
+            size = ((Collection<?>) result).size();
+        } else {
+            return;
+        }
+        groups.add(size);
+        lastGroups.set(size);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getElementCount() {
+        return elements.sum();
+    }
+
+    @Override
+    public double getElementsPerSecond() {
+        final long nanos = traversalNanos.sum();
+        return nanos == 0 ? 0 : timedElements.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public long getSplitCount() {
+        return splits.sum();
+    }
+
+    @Override
+    public Map<String, Long> getSplitCountPerThread() {
+        final Map<String, Long> snapshot = new TreeMap<>();
+        splitsPerThread.forEach((thread, count) -> snapshot.put(thread, count.sum()));
+        return snapshot;
+    }
+
+    @Override
+    public long getTraversalNanos() {
+        return traversalNanos.sum();
+    }
+
+    @Override
+    public long getContainerCount() {
+        return containers.sum();
+    }
+
+    @Override
+    public long getCombineCount() {
+        return combines.sum();
+    }
+
+    @Override
+    public long getCombineNanos() {
+        return combineNanos.sum();
+    }
+
+    @Override
+    public long getFinishCount() {
+        return finishes.sum();
+    }
+
+    @Override
+    public long getFinishNanos() {
+        return finishNanos.sum();
+    }
+
+    @Override
+    public long getGroupCount() {
+        return groups.sum();
+    }
+
+    @Override
+    public long getLastGroupCount() {
+        return lastGroups.get();
+    }
+
+    @Override
+    public void reset() {
+        elements.reset();
+        splits.reset();
+        splitsPerThread.clear();
+        timedElements.reset();
+        traversalNanos.reset();
+        containers.reset();
+        combines.reset();
+        combineNanos.reset();
+        finishes.reset();
+        finishNanos.reset();
+        groups.reset();
+        lastGroups.set(-1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: elements=%d, splits=%d, combines=%d, groups=%d",
+                             name,
+                             getElementCount(),
+                             getSplitCount(),
+                             getCombineCount(),
+                             getGroupCount());
+    }
+}
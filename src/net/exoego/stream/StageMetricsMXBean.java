@@ -0,0 +1,52 @@
+package net.exoego.stream;
+
+import java.util.Map;
+
+/**
+ * <p>The management interface of {@link StageMetrics}, registered to the platform MBean server as
+ * {@code net.exoego.stream:type=Stage,name=<stage name>}.</p>
+ */
+public interface StageMetricsMXBean {
+    String getName();
+
+    /**
+     * @return the number of elements that went through the stage.
+     */
+    long getElementCount();
+
+    /**
+     * @return the number of elements per second during bulk traversal, or 0 if no bulk traversal was timed.
+     */
+    double getElementsPerSecond();
+
+    long getSplitCount();
+
+    /**
+     * @return the number of splits keyed by the name of the thread that made them.
+     */
+    Map<String, Long> getSplitCountPerThread();
+
+    long getTraversalNanos();
+
+    long getContainerCount();
+
+    long getCombineCount();
+
+    long getCombineNanos();
+
+    long getFinishCount();
+
+    long getFinishNanos();
+
+    /**
+     * @return the sum of the sizes of all the {@code Map} or {@code Collection} results.
+     */
+    long getGroupCount();
+
+    /**
+     * @return the size of the latest {@code Map} or {@code Collection} result, or -1 if there is none.
+     */
+    long getLastGroupCount();
+
+    void reset();
+}
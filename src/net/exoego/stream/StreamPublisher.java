@@ -0,0 +1,118 @@
+package net.exoego.stream;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * <p>Publishes the elements of a {@code Stream} to a single subscriber.</p>
+ *
+ * <p>The stream is pulled on the thread that requests, and never further than the outstanding demand. A request
+ * made from within {@code onNext} only adds to the demand being served by the outer loop, so the recursion depth
+ * stays constant.</p>
+ */
+final class StreamPublisher<T> implements Flow.Publisher<T> {
+    private final Stream<T> stream;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    StreamPublisher(final Stream<T> stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber is null");
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("stream has already been subscribed"));
+            return;
+        }
+        subscriber.onSubscribe(new StreamSubscription<>(stream, subscriber));
+    }
+
+    private static final class StreamSubscription<T> implements Flow.Subscription {
+        private final Stream<T> stream;
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private Iterator<T> iterator;
+        private volatile boolean cancelled;
+
+        StreamSubscription(final Stream<T> stream, final Flow.Subscriber<? super T> subscriber) {
+            this.stream = stream;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("non-positive request: " + n));
+                return;
+            }
+            if (addDemand(n) == 0) {
+                drain();
+            }
+        }
+
+        private long addDemand(final long n) {
+            while (true) {
+                final long current = requested.get();
+                final long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (requested.compareAndSet(current, next)) {
+                    return current;
+                }
+            }
+        }
+
+        private void drain() {
+            long emitted = 0;
+            long demand = requested.get();
+            try {
+                if (iterator == null) {
+                    iterator = stream.iterator();
+                }
+                while (true) {
+                    while (emitted < demand) {
+                        if (cancelled) {
+                            return;
+                        }
+                        if (!iterator.hasNext()) {
+                            cancel();
+                            subscriber.onComplete();
+                            return;
+                        }
+                        subscriber.onNext(iterator.next());
+                        emitted++;
+                    }
+                    demand = requested.addAndGet(-emitted);
+                    emitted = 0;
+                    if (demand == 0) {
+                        return;
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (!cancelled) {
+                    cancel();
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                stream.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package net.exoego.stream;
+
+/**
+ * <p>A concurrent set of {@code long}s, striped by hash into independently locked open-addressing tables, so that
+ * parallel threads rarely contend and no value is boxed.</p>
+ */
+final class StripedLongSet {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+
+    StripedLongSet() {
+        this.stripes = new Stripe[Striping.stripeCount()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(stripes.length);
+    }
+
+    /**
+     * Adds the value, and returns true if it was absent.
+     */
+    boolean add(final long value) {
+        final int h = spread(value);
+        // the stripe takes the top bits and the slot the bottom ones, so a stripe's keys spread over all its slots
+        final Stripe stripe = stripes[(int) ((h & 0xFFFFFFFFL) >>> stripeShift)];
+        synchronized (stripe) {
+            return stripe.add(value, h);
+        }
+    }
+
+    private static int spread(final long value) {
+        final long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Stripe {
+        private long[] values = new long[INITIAL_CAPACITY];
+        private boolean[] used = new boolean[INITIAL_CAPACITY];
+        private int size;
+
+        boolean add(final long value, final int h) {
+            final int m = values.length - 1;
+            int slot = h & m;
+            while (used[slot]) {
+                if (values[slot] == value) {
+                    return false;
+                }
+                slot = (slot + 1) & m;
+            }
+            used[slot] = true;
+            values[slot] = value;
+            if (++size * 2 > values.length) {
+                resize();
+            }
+            return true;
+        }
+
+        private void resize() {
+            final long[] oldValues = values;
+            final boolean[] oldUsed = used;
+            values = new long[oldValues.length * 2];
+            used = new boolean[values.length];
+            final int m = values.length - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = spread(oldValues[i]) & m;
+                    while (used[slot]) {
+                        slot = (slot + 1) & m;
+                    }
+                    used[slot] = true;
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package net.exoego.stream;
+
+/**
+ * <p>Sizing of the striped concurrent structures, such as {@link StripedLongSet} and {@link RecentKeys}.</p>
+ */
+final class Striping {
+    private Striping() {}
+
+    /**
+     * Returns the number of stripes of a striped concurrent structure: a power of two of at least four per
+     * processor, so that parallel threads rarely pick the same stripe.
+     */
+    static int stripeCount() {
+        return Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 8 - 1);
+    }
+}
@@ -0,0 +1,72 @@
+package net.exoego.stream;
+
+import java.util.Objects;
+
+/**
+ * <p>The result of a reduction of the elements of a key within an event-time window {@code [start, end)}.</p>
+ *
+ * @param <K> the type of the key.
+ * @param <V> the type of the reduced value.
+ * @see MoreStreams#windowed(java.util.stream.Stream, java.util.function.ToLongFunction, long, long, long,
+ * java.util.function.Function, java.util.stream.Collector)
+ */
+public final class Window<K, V> {
+    private final K key;
+    private final long start;
+    private final long end;
+    private final V value;
+
+    Window(final K key, final long start, final long end, final V value) {
+        this.key = key;
+        this.start = start;
+        this.end = end;
+        this.value = value;
+    }
+
+    public K key() {
+        return key;
+    }
+
+    /**
+     * @return the inclusive lower bound of the timestamps in this window.
+     */
+    public long start() {
+        return start;
+    }
+
+    /**
+     * @return the exclusive upper bound of the timestamps in this window.
+     */
+    public long end() {
+        return end;
+    }
+
+    public V value() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Window)) {
+            return false;
+        }
+        final Window<?, ?> that = (Window<?, ?>) o;
+        return start == that.start
+                && end == that.end
+                && Objects.equals(key, that.key)
+                && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, start, end, value);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%d, %d)=%s", key, start, end, value);
+    }
+}
@@ -0,0 +1,133 @@
+package net.exoego.stream;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * <p>Reduces the elements of each key within event-time windows of {@code windowLength}, starting every
+ * {@code windowSlide}, and emits each window once it is closed.</p>
+ *
+ * <p>The watermark is the largest timestamp seen so far minus {@code allowedLateness}. A window is closed once its
+ * end is not after the watermark, and an element which belongs only to closed windows is dropped. Only the open
+ * windows are kept, and the source is pulled only until a window closes. Closed windows are emitted in order of
+ * their start, and the keys in a window in order of their first element.</p>
+ *
+ * <p>The open windows which an element was last assigned to are cached by their primitive start in a small ring,
+ * indexed by the start divided by {@code windowSlide}, so the map of open windows (and the boxing of its keys) is
+ * only hit when an element opens a window, or when more windows are open than the ring holds.</p>
+ */
+final class WindowingSpliterator<T, K, A, V> extends Spliterators.AbstractSpliterator<Window<K, V>> {
+    private static final int MAX_CACHED_WINDOWS = 64;
+
+    private final Spliterator<T> source;
+    private final ToLongFunction<? super T> timestampFn;
+    private final long windowLength;
+    private final long windowSlide;
+    private final long allowedLateness;
+    private final Function<? super T, ? extends K> keyMapper;
+    private final Supplier<A> supplier;
+    private final BiConsumer<A, ? super T> accumulator;
+    private final Function<A, V> finisher;
+    private final TreeMap<Long, Map<K, A>> openWindows = new TreeMap<>();
+    private final long[] cachedStarts;
+    private final Object[] cachedWindows;
+    private final Queue<Window<K, V>> closed = new ArrayDeque<>();
+    private final Consumer<T> assigner = this::assign;
+    private final Function<Long, Map<K, A>> newWindow = start -> new LinkedHashMap<>();
+    private final Function<K, A> newContainer;
+    private long watermark = Long.MIN_VALUE;
+
+    WindowingSpliterator(final Spliterator<T> source,
+                         final ToLongFunction<? super T> timestampFn,
+                         final long windowLength,
+                         final long windowSlide,
+                         final long allowedLateness,
+                         final Function<? super T, ? extends K> keyMapper,
+                         final Collector<? super T, A, V> downstream) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.source = source;
+        this.timestampFn = timestampFn;
+        this.windowLength = windowLength;
+        this.windowSlide = windowSlide;
+        this.allowedLateness = allowedLateness;
+        this.keyMapper = keyMapper;
+        this.supplier = downstream.supplier();
+        this.accumulator = downstream.accumulator();
+        this.finisher = downstream.finisher();
+        this.newContainer = key -> supplier.get();
+        final long windowsPerElement = (windowLength - 1) / windowSlide + 1;
+        this.cachedStarts = new long[(int) Math.min(windowsPerElement, MAX_CACHED_WINDOWS)];
+        this.cachedWindows = new Object[cachedStarts.length];
+    }
+
+    private int cacheSlot(final long start) {
+        return (int) Math.floorMod(Math.floorDiv(start, windowSlide), (long) cachedStarts.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<K, A> window(final long start) {
+        final int slot = cacheSlot(start);
+        if (cachedWindows[slot] != null && cachedStarts[slot] == start) {
+            return (Map<K, A>) cachedWindows[slot];
+        }
+        final Map<K, A> window = openWindows.computeIfAbsent(start, newWindow);
+        cachedStarts[slot] = start;
+        cachedWindows[slot] = window;
+        return window;
+    }
+
+    private void assign(final T e) {
+        final long timestamp = timestampFn.applyAsLong(e);
+        final K key = keyMapper.apply(e);
+        for (long start = Math.floorDiv(timestamp, windowSlide) * windowSlide;
+             start > timestamp - windowLength;
+             start -= windowSlide) {
+            if (start + windowLength > watermark) {
+                final A container = window(start).computeIfAbsent(key, newContainer);
+                accumulator.accept(container, e);
+            }
+        }
+        watermark = Math.max(watermark, timestamp - allowedLateness);
+        close(false);
+    }
+
+    private void close(final boolean all) {
+        while (!openWindows.isEmpty() && (all || openWindows.firstKey() + windowLength <= watermark)) {
+            final Map.Entry<Long, Map<K, A>> window = openWindows.pollFirstEntry();
+            final long start = window.getKey();
+            final int slot = cacheSlot(start);
+            if (cachedWindows[slot] == window.getValue()) {
+                cachedWindows[slot] = null;
+            }
+            window.getValue().forEach((key, container) -> closed.add(new Window<>(key,
+                                                                                  start,
+                                                                                  start + windowLength,
+                                                                                  finisher.apply(container))));
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Window<K, V>> action) {
+        while (closed.isEmpty()) {
+            if (!source.tryAdvance(assigner)) {
+                close(true);
+                if (closed.isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        action.accept(closed.poll());
+        return true;
+    }
+}
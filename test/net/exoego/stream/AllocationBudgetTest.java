@@ -0,0 +1,480 @@
+package net.exoego.stream;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * <p>Pins the heap garbage allocated per element by each utility, so that a change which starts boxing, copying or
+ * wrapping on the hot path fails here rather than only in a profiler.</p>
+ *
+ * <p>Each task runs sequentially on the test thread, is warmed up, and is then measured several times with
+ * {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes}; the smallest measurement is compared with the
+ * budget. The inputs, including any iterables to be expanded, are built up front, so only what the utility itself
+ * allocates is counted.</p>
+ *
+ * <p>The budgets are calibrated for code compiled by C2 with escape analysis, which scalar-replaces the short-lived
+ * lambdas, sinks and iterators of the stages; a budget below one byte per element means "nothing per element" only
+ * there. The tests are therefore skipped when C2 is not the top tier, e.g. under {@code -Xint} or
+ * {@code -XX:TieredStopAtLevel=1}, and when an agent such as a coverage tool may have instrumented the code.</p>
+ *
+ * <p>Not covered are the stages which do their work on other threads ({@code mapAsync}, {@code processBatches},
+ * {@code fromPublisher}, {@code toPublisher} and {@code collectingProcessor}), as the allocation of the test thread
+ * does not reflect it.</p>
+ */
+@RunWith(Enclosed.class)
+public class AllocationBudgetTest {
+    private static final int ELEMENTS = 100_000;
+    private static final int WARM_UP_ROUNDS = 50;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final double NOTHING_PER_ELEMENT = 1.0;
+
+    private static final List<Integer> NUMBERS = IntStream.range(0, ELEMENTS).boxed().collect(toList());
+    private static final List<Object> MIXED = IntStream.range(0, ELEMENTS)
+                                                       .mapToObj(i -> i % 2 == 0 ? (Object) i : "s")
+                                                       .collect(toList());
+    private static final List<String> WORDS = IntStream.range(0, ELEMENTS)
+                                                       .mapToObj(i -> "w" + (i % 100))
+                                                       .collect(toList());
+    private static final List<List<Integer>> SINGLETONS = NUMBERS.stream()
+                                                                 .map(Collections::singletonList)
+                                                                 .collect(toList());
+    private static final List<Entry<Integer, Integer>> ENTRIES = NUMBERS.stream()
+                                                                        .map(i -> new SimpleImmutableEntry<>(i, i))
+                                                                        .collect(toList());
+
+    private static volatile Object sink;
+
+    private static boolean isEscapeAnalyzingCompilerActive() {
+        if (System.getProperty("java.vm.info", "").contains("interpreted")) {
+            return false;
+        }
+        if (ManagementFactory.getRuntimeMXBean()
+                             .getInputArguments()
+                             .stream()
+                             .anyMatch(a -> a.startsWith("-javaagent") || a.startsWith("-agent"))) {
+            return false;
+        }
+        final HotSpotDiagnosticMXBean hotspot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        if (hotspot == null) {
+            return false;
+        }
+        try {
+            return Integer.parseInt(hotspot.getVMOption("TieredStopAtLevel").getValue()) >= 4 &&
+                   Boolean.parseBoolean(hotspot.getVMOption("DoEscapeAnalysis").getValue());
+        } catch (IllegalArgumentException e) {
+            // the VM has no C2 to tune
+            return false;
+        }
+    }
+
+    private static void assertBudget(final double bytesPerElement, final Supplier<?> task) {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("thread allocation accounting is unavailable",
+                   bean instanceof com.sun.management.ThreadMXBean &&
+                   ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported());
+        assumeTrue("budgets are calibrated for C2 with escape analysis", isEscapeAnalyzingCompilerActive());
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            sink = task.get();
+        }
+        long fewest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            final long before = threads.getThreadAllocatedBytes(threadId);
+            sink = task.get();
+            fewest = Math.min(fewest, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        sink = null;
+        final double actual = (double) fewest / ELEMENTS;
+        assertTrue(String.format("allocated %.2f bytes per element, budget is %.2f", actual, bytesPerElement),
+                   actual < bytesPerElement);
+    }
+
+    public static class FlatMappersBudget {
+        @Test
+        public void primitive_zipperMulti_allocates_nothing_per_element() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> IntStream.range(0, ELEMENTS)
+                                                             .mapMulti(FlatMappers.zipperMulti(IntStream.range(0, ELEMENTS), Integer::sum))
+                                                             .sum());
+            assertBudget(NOTHING_PER_ELEMENT, () -> LongStream.range(0, ELEMENTS)
+                                                              .mapMulti(FlatMappers.zipperMulti(LongStream.range(0, ELEMENTS), Long::sum))
+                                                              .sum());
+            assertBudget(NOTHING_PER_ELEMENT, () -> LongStream.range(0, ELEMENTS)
+                                                              .asDoubleStream()
+                                                              .mapMulti(FlatMappers.zipperMulti(LongStream.range(0, ELEMENTS)
+                                                                                                          .asDoubleStream(),
+                                                                                                Double::sum))
+                                                              .sum());
+        }
+
+        @Test
+        public void reference_zipperMulti_allocates_nothing_per_element() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> NUMBERS.stream()
+                                                           .mapMulti(FlatMappers.<Integer, Integer, Integer>zipperMulti(NUMBERS.stream(), (a, b) -> a))
+                                                           .count());
+        }
+
+        @Test
+        public void zipper_allocates_at_most_a_singleton_stream_per_element() {
+            assertBudget(128, () -> IntStream.range(0, ELEMENTS)
+                                             .flatMap(FlatMappers.zipper(IntStream.range(0, ELEMENTS), Integer::sum))
+                                             .sum());
+            assertBudget(128, () -> LongStream.range(0, ELEMENTS)
+                                              .flatMap(FlatMappers.zipper(LongStream.range(0, ELEMENTS), Long::sum))
+                                              .sum());
+            assertBudget(128, () -> LongStream.range(0, ELEMENTS)
+                                              .asDoubleStream()
+                                              .flatMap(FlatMappers.zipper(LongStream.range(0, ELEMENTS).asDoubleStream(),
+                                                                          Double::sum))
+                                              .sum());
+            assertBudget(128, () -> NUMBERS.stream()
+                                           .flatMap(FlatMappers.zipper(NUMBERS.stream(), (Integer a, Integer b) -> a))
+                                           .count());
+        }
+
+        @Test
+        public void ofTypeMulti_allocates_nothing_per_element() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> MIXED.stream()
+                                                         .mapMulti(FlatMappers.ofTypeMulti(Integer.class))
+                                                         .count());
+        }
+
+        @Test
+        public void ofType_allocates_at_most_a_singleton_stream_per_element() {
+            assertBudget(112, () -> MIXED.stream().flatMap(FlatMappers.ofType(Integer.class)).count());
+        }
+
+        @Test
+        public void expand_allocates_nothing_beyond_the_expanded_iterables() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> NUMBERS.stream()
+                                                           .mapMulti(FlatMappers.expand(SINGLETONS::get))
+                                                           .count());
+        }
+    }
+
+    public static class MoreStreamsBudget {
+        @Test
+        public void grouped_allocates_about_one_reference_per_element() {
+            assertBudget(10, () -> MoreStreams.grouped(NUMBERS.stream(), 100).count());
+        }
+
+        @Test
+        public void groupAdjacent_allocates_nothing_per_element_with_a_reducing_downstream() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.groupAdjacent(NUMBERS.stream(),
+                                                                              i -> NUMBERS.get(i / 100),
+                                                                              counting(),
+                                                                              (k, n) -> n)
+                                                               .count());
+        }
+
+        @Test
+        public void groupAdjacent_allocates_about_one_reference_per_element_into_lists() {
+            assertBudget(24, () -> MoreStreams.groupAdjacent(NUMBERS.stream(),
+                                                             i -> NUMBERS.get(i / 100),
+                                                             (Integer k, List<Integer> l) -> l)
+                                              .count());
+        }
+
+        @Test
+        public void windowed_allocates_per_window_but_not_per_element() {
+            assertBudget(4, () -> MoreStreams.windowed(NUMBERS.stream(), i -> i, 1000, i -> i % 10, counting()).count());
+            assertBudget(8, () -> MoreStreams.windowed(NUMBERS.stream(), i -> i, 1000, 500, 0, i -> i % 10, counting())
+                                              .count());
+        }
+
+        @Test
+        public void toImmutableList_allocates_about_one_reference_per_element() {
+            assertBudget(10, () -> MoreStreams.toImmutableList(NUMBERS.stream(), i -> i));
+        }
+
+        @Test
+        public void distinct_stages_allocate_nothing_per_element_for_few_keys() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.distinctBy(WORDS.stream(), s -> s).count());
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.distinctByInt(NUMBERS.stream(), i -> i % 100)
+                                                               .count());
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.distinctByLong(NUMBERS.stream(), i -> i % 100L)
+                                                               .count());
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.distinctAdjacentBy(NUMBERS.stream(), i -> NUMBERS.get(i / 100))
+                                                               .count());
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.distinctRecentlyBy(WORDS.stream(), s -> s, 1000).count());
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.distinctApproximatelyBy(WORDS.stream(), s -> s, 1000, 0.01)
+                                                               .count());
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.distinctApproximatelyBy(WORDS.stream(), s -> s, String::hashCode, 1000, 0.01)
+                                                               .count());
+        }
+
+        @Test
+        public void collectUntil_allocates_only_what_the_collector_does() {
+            assertBudget(24, () -> MoreStreams.collectUntil(NUMBERS.stream(), MoreCollectors.firstN(ELEMENTS)));
+            final Collector<Integer, List<Integer>, List<Integer>> toList = Collector.of(() -> new ArrayList<>(ELEMENTS),
+                                                                                         List::add,
+                                                                                         (left, right) -> {
+                                                                                             left.addAll(right);
+                                                                                             return left;
+                                                                                         });
+            assertBudget(10, () -> MoreStreams.collectUntil(NUMBERS.stream(), toList, list -> list.size() >= ELEMENTS));
+        }
+
+        @Test
+        public void instrumented_allocates_nothing_per_element() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.instrumented(NUMBERS.stream(), "allocation-budget")
+                                                               .count());
+        }
+
+        @Test
+        public void mergeSorted_allocates_nothing_per_element() {
+            final List<Integer> evens = NUMBERS.stream().filter(i -> i % 2 == 0).collect(toList());
+            final List<Integer> odds = NUMBERS.stream().filter(i -> i % 2 != 0).collect(toList());
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.mergeSorted(asList(evens.stream(), odds.stream()),
+                                                                            Integer::compare)
+                                                               .count());
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.mergeSortedInts(asList(IntStream.range(0, ELEMENTS / 2),
+                                                                                       IntStream.range(0, ELEMENTS / 2)))
+                                                               .sum());
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.mergeSortedLongs(asList(LongStream.range(0, ELEMENTS / 2),
+                                                                                        LongStream.range(0, ELEMENTS / 2)))
+                                                               .sum());
+        }
+    }
+
+    public static class MoreStreamsFileBudget {
+        private Path binary;
+        private Path text;
+
+        @Before
+        public void setUp() throws IOException {
+            final ByteBuffer bytes = ByteBuffer.allocate(ELEMENTS * Long.BYTES);
+            for (int i = 0; i < ELEMENTS; i++) {
+                bytes.putLong(i);
+            }
+            binary = Files.createTempFile("allocation-budget", ".bin");
+            Files.write(binary, bytes.array());
+            text = Files.createTempFile("allocation-budget", ".txt");
+            Files.write(text, NUMBERS.stream().map(String::valueOf).collect(toList()), StandardCharsets.US_ASCII);
+        }
+
+        @After
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(binary);
+            Files.deleteIfExists(text);
+        }
+
+        @Test
+        public void mapped_primitives_allocate_nothing_per_element() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> io(() -> MoreStreams.mappedLongs(binary).sum()));
+            assertBudget(NOTHING_PER_ELEMENT, () -> io(() -> MoreStreams.mappedInts(binary).sum()) / 2);
+            assertBudget(NOTHING_PER_ELEMENT, () -> io(() -> MoreStreams.mappedDoubles(binary).sum()));
+        }
+
+        @Test
+        public void mappedRecords_allocates_nothing_beyond_the_decoded_records() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> io(() -> MoreStreams.mappedRecords(binary, Long.BYTES, b -> b)
+                                                                        .count()));
+        }
+
+        @Test
+        public void lineViews_allocates_at_most_a_view_but_no_string_per_line() {
+            assertBudget(48, () -> io(() -> MoreStreams.lineViews(text).mapToInt(CharSequence::length).sum()));
+        }
+
+        @Test
+        public void lines_and_records_allocate_about_one_string_per_line() {
+            assertBudget(72, () -> io(() -> MoreStreams.lines(text, StandardCharsets.US_ASCII).count()));
+            assertBudget(72, () -> io(() -> MoreStreams.records(text, '\n', StandardCharsets.US_ASCII).count()));
+        }
+
+        private interface IOSupplier<R> {
+            R get() throws IOException;
+        }
+
+        private static <R> R io(final IOSupplier<R> task) {
+            try {
+                return task.get();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    public static class MoreCollectorsBudget {
+        @Test
+        public void toListMapped_allocates_one_reference_per_element_when_presized() {
+            assertBudget(10, () -> NUMBERS.stream().collect(MoreCollectors.toListMapped(i -> i, ELEMENTS)));
+        }
+
+        @Test
+        public void toListMapped_allocates_at_most_the_growth_of_the_backing_array() {
+            assertBudget(24, () -> NUMBERS.stream().collect(MoreCollectors.toListMapped(i -> i)));
+            assertBudget(28, () -> NUMBERS.stream().collect(MoreCollectors.toImmutableListMapped(i -> i)));
+        }
+
+        @Test
+        public void toSetMapped_allocates_nothing_per_element_for_few_distinct_values() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> WORDS.stream().collect(MoreCollectors.toSetMapped(s -> s)));
+            assertBudget(NOTHING_PER_ELEMENT, () -> WORDS.stream().collect(MoreCollectors.toSetMapped(s -> s, 100)));
+            assertBudget(NOTHING_PER_ELEMENT, () -> WORDS.stream()
+                                                         .collect(MoreCollectors.toImmutableSetMapped(s -> s)));
+        }
+
+        @Test
+        public void toStream_allocates_about_one_reference_per_element() {
+            assertBudget(12, () -> NUMBERS.stream().collect(MoreCollectors.toStream()).count());
+            assertBudget(12, () -> NUMBERS.stream().collect(MoreCollectors.<Integer, Long>toStreamThen(s -> s.count())));
+        }
+
+        @Test
+        public void primitive_streams_allocate_about_one_primitive_per_element() {
+            assertBudget(12, () -> NUMBERS.stream().collect(MoreCollectors.toIntStream(i -> i)).sum());
+            assertBudget(12, () -> NUMBERS.stream().collect(MoreCollectors.toIntStreamThen(i -> i, IntStream::sum)));
+            assertBudget(20, () -> NUMBERS.stream().collect(MoreCollectors.toLongStream(i -> i)).sum());
+            assertBudget(20, () -> NUMBERS.stream().collect(MoreCollectors.toDoubleStream(i -> i)).sum());
+        }
+
+        @Test
+        public void off_heap_streams_allocate_nothing_on_heap_per_element() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> {
+                try (IntStream ints = NUMBERS.stream().collect(MoreCollectors.toOffHeapIntStream(i -> i))) {
+                    return ints.sum();
+                }
+            });
+            assertBudget(NOTHING_PER_ELEMENT, () -> {
+                try (LongStream longs = NUMBERS.stream().collect(MoreCollectors.toOffHeapLongStream(i -> i))) {
+                    return longs.sum();
+                }
+            });
+            assertBudget(NOTHING_PER_ELEMENT, () -> {
+                try (DoubleStream doubles = NUMBERS.stream().collect(MoreCollectors.toOffHeapDoubleStream(i -> i))) {
+                    return doubles.sum();
+                }
+            });
+        }
+
+        @Test
+        public void grouping_into_lists_allocates_about_one_reference_per_element() {
+            assertBudget(56, () -> WORDS.stream().collect(MoreCollectors.toGroupedMap(s -> s)));
+            assertBudget(56, () -> WORDS.stream().collect(MoreCollectors.toGroupedEntries(s -> s)).count());
+            assertBudget(24, () -> WORDS.stream().collect(MoreCollectors.skewAwareGroupingBy(s -> s)));
+            assertBudget(48, () -> WORDS.stream()
+                                        .collect(MoreCollectors.groupingThenStreaming(s -> s, (String k, List<String> l) -> l))
+                                        .count());
+        }
+
+        @Test
+        public void grouping_by_groupingBy_allocates_at_most_its_computeIfAbsent_lambda_per_element() {
+            assertBudget(24, () -> WORDS.stream().collect(MoreCollectors.toGroupedMap(s -> s, counting())));
+            assertBudget(24, () -> WORDS.stream().collect(MoreCollectors.toGroupedEntries(s -> s, counting())).count());
+            assertBudget(24, () -> WORDS.stream()
+                                        .collect(MoreCollectors.groupingThenStreaming(s -> s, counting(), (String k, Long n) -> n))
+                                        .count());
+            assertBudget(24, () -> WORDS.stream()
+                                        .collect(MoreCollectors.groupingThenStreaming(s -> s,
+                                                                                      counting(),
+                                                                                      (String k, Long n) -> n,
+                                                                                      HashMap::new))
+                                        .count());
+        }
+
+        @Test
+        public void skewAwareGroupingBy_allocates_nothing_per_element_with_a_reducing_downstream() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> WORDS.stream()
+                                                         .collect(MoreCollectors.skewAwareGroupingBy(s -> s, counting())));
+        }
+
+        @Test
+        public void grouping_with_LongReducer_allocates_nothing_per_element() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> WORDS.stream()
+                                                         .collect(MoreCollectors.toGroupedMap(s -> s, LongReducer.counting())));
+            assertBudget(NOTHING_PER_ELEMENT, () -> WORDS.stream()
+                                                         .collect(MoreCollectors.toGroupedEntries(s -> s, LongReducer.counting()))
+                                                         .count());
+        }
+
+        @Test
+        public void sorted_grouping_allocates_about_a_keyed_pair_per_element() {
+            assertBudget(40, () -> WORDS.stream().collect(MoreCollectors.toSortedGroupedEntries(s -> s, counting())).count());
+            assertBudget(40, () -> WORDS.stream()
+                                        .collect(MoreCollectors.toSortedGroupedEntries(s -> s, String::compareTo, counting()))
+                                        .count());
+        }
+
+        @Test
+        public void sorted_grouping_by_int_allocates_about_a_packed_long_per_element() {
+            assertBudget(32, () -> NUMBERS.stream()
+                                          .collect(MoreCollectors.toSortedGroupedEntriesByInt(i -> i % 100, counting()))
+                                          .count());
+        }
+
+        @Test
+        public void toGroupingIndex_allocates_about_a_reference_and_an_int_per_element() {
+            assertBudget(40, () -> WORDS.stream().collect(MoreCollectors.toGroupingIndex(s -> s)));
+        }
+
+        @Test
+        public void toColumns_allocates_about_one_int_per_element_and_column() {
+            assertBudget(32, () -> WORDS.stream()
+                                        .collect(MoreCollectors.<String>toColumns(asList(String::length),
+                                                                                  Collections.emptyList(),
+                                                                                  asList(s -> s))));
+        }
+
+        @Test
+        public void toMapFromEntry_allocates_about_a_hash_node_per_entry() {
+            assertBudget(80, () -> ENTRIES.stream().collect(MoreCollectors.toMapFromEntry()));
+            assertBudget(64, () -> ENTRIES.stream().collect(MoreCollectors.toMapFromEntry(ELEMENTS)));
+            assertBudget(80, () -> ENTRIES.stream().collect(MoreCollectors.toMapFromEntry(Integer::sum, HashMap::new)));
+            assertBudget(120, () -> ENTRIES.stream().collect(MoreCollectors.toImmutableMapFromEntry()));
+        }
+
+        @Test
+        public void wrappers_allocate_nothing_per_element() {
+            final Collector<String, ?, Long> counting = counting();
+            assertBudget(NOTHING_PER_ELEMENT, () -> WORDS.stream()
+                                                         .collect(MoreCollectors.instrumented(counting, "allocation-budget")));
+            assertBudget(NOTHING_PER_ELEMENT, () -> WORDS.stream()
+                                                         .collect(MoreCollectors.recorded(counting, "allocation-budget")));
+        }
+
+        @Test
+        public void short_circuiting_collectors_allocate_nothing_per_element_for_few_groups() {
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.collectUntil(WORDS.stream(),
+                                                                             MoreCollectors.groupingLimit(s -> s, 2)));
+            assertBudget(NOTHING_PER_ELEMENT, () -> MoreStreams.collectUntil(WORDS.stream(),
+                                                                             MoreCollectors.groupingLimit(s -> s, 2, 100)));
+            assertBudget(NOTHING_PER_ELEMENT, () -> WORDS.stream()
+                                                         .collect(MoreCollectors.anyMatchPerGroup(s -> s, s -> false)));
+            assertBudget(NOTHING_PER_ELEMENT, () -> WORDS.stream()
+                                                         .collect(MoreCollectors.anyMatchPerGroup(s -> s, s -> false, 100)));
+        }
+    }
+}
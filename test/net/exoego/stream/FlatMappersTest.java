@@ -1,7 +1,10 @@
 package net.exoego.stream;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.DoubleBinaryOperator;
 import java.util.function.DoubleFunction;
 import java.util.function.Function;
@@ -315,4 +318,54 @@ public class FlatMappersTest {
             FlatMappers.ofType(null);
         }
     }
+
+    public static class MapMultiCounterparts {
+        @Test
+        public void zipperMulti_for_Stream_quits_if_right_is_shorter() {
+            Stream<String> left = Stream.of("a", "b", "c", "long");
+            Stream<Integer> right = Stream.of(1, 2, 3);
+            BiConsumer<String, Consumer<String>> zip = FlatMappers.zipperMulti(right, (a, b) -> a + b);
+            assertThat(left.mapMulti(zip).collect(toList()), is(asList("a1", "b2", "c3")));
+        }
+
+        @Test
+        public void zipperMulti_for_primitive_streams() {
+            assertThat(IntStream.of(1, 2, 3).mapMulti(FlatMappers.zipperMulti(IntStream.of(10, 20), Integer::sum))
+                                .toArray(),
+                       is(new int[]{11, 22}));
+            assertThat(LongStream.of(1, 2).mapMulti(FlatMappers.zipperMulti(LongStream.of(10, 20, 30), Long::sum))
+                                 .toArray(),
+                       is(new long[]{11, 22}));
+            assertThat(DoubleStream.of(1, 2).mapMulti(FlatMappers.zipperMulti(DoubleStream.of(0.5, 0.25), Double::sum))
+                                   .toArray(),
+                       is(new double[]{1.5, 2.25}));
+        }
+
+        @Test
+        public void ofTypeMulti_extracts_instances_of_given_type() {
+            List<Number> mixed = asList(0, 0.5, 0.3f, 2, 1L, 4L, -1);
+            Stream<Integer> filtered = mixed.stream().mapMulti(FlatMappers.ofTypeMulti(Integer.class));
+            assertThat(filtered.collect(toList()), is(asList(0, 2, -1)));
+        }
+
+        @Test
+        public void expand_pushes_zero_or_more_outputs() {
+            Stream<String> expanded = Stream.of("a,b", "", "c", null)
+                                            .mapMulti(FlatMappers.expand((String s) -> s == null
+                                                    ? null
+                                                    : s.isEmpty() ? Collections.<String>emptyList() : asList(s.split(","))));
+            assertThat(expanded.collect(toList()), is(asList("a", "b", "c")));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void zipperMulti_fail_fast_if_null_mapper() {
+            IntBinaryOperator func = null;
+            FlatMappers.zipperMulti(IntStream.empty(), func);
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void expand_fail_fast_if_null() {
+            FlatMappers.expand(null);
+        }
+    }
 }
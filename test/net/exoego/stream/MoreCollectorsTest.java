@@ -1,14 +1,29 @@
 package net.exoego.stream;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
@@ -54,6 +69,34 @@ public class MoreCollectorsTest {
         public void toListMapped_fail_fast_if_null_mapper_given() {
             toListMapped(null);
         }
+
+        @Test
+        public void presized_toListMapped_collects_as_unsized_one_does() {
+            List<Integer> result = Stream.of("a", "on", "cat", "tri", "by").collect(toListMapped(String::length, 2));
+            assertThat(result, is(asList(1, 2, 3, 3, 2)));
+        }
+
+        @Test
+        public void presized_toListMapped_collects_in_parallel() {
+            List<Integer> result = IntStream.range(0, 10000).boxed().parallel().collect(toListMapped(i -> i, 10000));
+            assertThat(result, is(IntStream.range(0, 10000).boxed().collect(toList())));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void presized_toListMapped_fail_fast_if_negative_size_given() {
+            toListMapped(String::length, -1);
+        }
+
+        @Test
+        public void toImmutableListMapped_returns_a_Collector_that_maps_element_and_collects() {
+            List<Integer> result = Stream.of("a", "on", "cat").collect(toImmutableListMapped(String::length));
+            assertThat(result, is(asList(1, 2, 3)));
+        }
+
+        @Test(expected = UnsupportedOperationException.class)
+        public void toImmutableListMapped_returns_an_immutable_list() {
+            Stream.of("a", "on", "cat").collect(toImmutableListMapped(String::length)).add(4);
+        }
     }
 
     public static class ToSetMapped {
@@ -88,6 +131,70 @@ public class MoreCollectorsTest {
         public void toSetMapped_fail_fast_if_null_mapper_given() {
             toSetMapped(null);
         }
+
+        @Test
+        public void presized_toSetMapped_collects_as_unsized_one_does() {
+            Set<Integer> result = Stream.of("a", "on", "cat", "tri", "by").collect(toSetMapped(String::length, 3));
+            assertThat(result, is(new HashSet<>(asList(1, 2, 3))));
+        }
+
+        @Test
+        public void toImmutableSetMapped_returns_an_equivalent_set() {
+            Set<Integer> expected = IntStream.range(0, 1000).map(i -> i % 300).boxed().collect(toSet());
+            Set<Integer> result = IntStream.range(0, 1000).boxed().collect(toImmutableSetMapped(i -> i % 300));
+            assertThat(result, is(expected));
+            assertThat(result.contains(299), is(true));
+            assertThat(result.contains(300), is(false));
+        }
+
+        @Test(expected = UnsupportedOperationException.class)
+        public void toImmutableSetMapped_returns_an_immutable_set() {
+            Stream.of("a", "on").collect(toImmutableSetMapped(String::length)).remove(1);
+        }
+    }
+
+    public static class ToMapFromEntry {
+        private static Stream<Entry<String, Integer>> entries(String... keys) {
+            return Stream.of(keys).map(k -> new SimpleImmutableEntry<>(k, k.length()));
+        }
+
+        @Test
+        public void presized_toMapFromEntry_collects_entries() {
+            Map<String, Integer> result = entries("a", "on", "cat").collect(toMapFromEntry(3));
+            assertThat(result.get("on"), is(2));
+            assertThat(result.size(), is(3));
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void presized_toMapFromEntry_fails_on_duplicated_keys() {
+            entries("a", "on", "a").collect(toMapFromEntry(3));
+        }
+
+        @Test
+        public void toMapFromEntry_with_merge_function_and_map_factory() {
+            TreeMap<String, Integer> result = entries("on", "a", "on").collect(toMapFromEntry(Integer::sum,
+                                                                                             TreeMap::new));
+            assertThat(new ArrayList<>(result.keySet()), is(asList("a", "on")));
+            assertThat(result.get("on"), is(4));
+        }
+
+        @Test
+        public void toImmutableMapFromEntry_keeps_encounter_order() {
+            Map<String, Integer> result = IntStream.range(0, 100)
+                                                   .mapToObj(i -> "k" + (99 - i))
+                                                   .map(k -> new SimpleImmutableEntry<>(k, k.length()))
+                                                   .collect(toImmutableMapFromEntry());
+            assertThat(result.size(), is(100));
+            assertThat(result.keySet().iterator().next(), is("k99"));
+            assertThat(result.get("k5"), is(2));
+            assertThat(result.get("k100"), is(nullValue()));
+            assertThat(result, is(new HashMap<>(result)));
+        }
+
+        @Test(expected = UnsupportedOperationException.class)
+        public void toImmutableMapFromEntry_returns_an_immutable_map() {
+            entries("a").collect(toImmutableMapFromEntry()).put("b", 1);
+        }
     }
 
     public static class ToStream {
@@ -125,6 +232,67 @@ public class MoreCollectorsTest {
         }
     }
 
+    public static class ToOffHeapStream {
+        @Test
+        public void collects_ints_in_encounter_order() {
+            try (IntStream result = Stream.of("cat", "dog", "bird", "dragon").collect(toOffHeapIntStream(String::length))) {
+                assertThat(result.toArray(), is(new int[]{3, 3, 4, 6}));
+            }
+        }
+
+        @Test
+        public void collects_longs_and_doubles() {
+            try (LongStream longs = IntStream.range(0, 10).boxed().collect(toOffHeapLongStream(i -> i * 10_000_000_000L))) {
+                assertThat(longs.sum(), is(450_000_000_000L));
+            }
+            try (DoubleStream doubles = Stream.of(0.5, 1.5, 2.5).collect(toOffHeapDoubleStream(d -> d))) {
+                assertThat(doubles.toArray(), is(new double[]{0.5, 1.5, 2.5}));
+            }
+        }
+
+        @Test
+        public void parallel_collection_spans_many_chunks() {
+            try (IntStream result = IntStream.range(0, 1_000_000).parallel().boxed().collect(toOffHeapIntStream(i -> i))) {
+                assertThat(result.count(), is(1_000_000L));
+            }
+            try (IntStream result = IntStream.range(0, 1_000_000).parallel().boxed().collect(toOffHeapIntStream(i -> i))) {
+                assertThat(result.parallel().asLongStream().sum(), is(499_999_500_000L));
+            }
+            try (IntStream result = IntStream.range(0, 1_000_000).boxed().collect(toOffHeapIntStream(i -> i))) {
+                assertThat(result.parallel().skip(999_998).toArray(), is(new int[]{999_998, 999_999}));
+            }
+        }
+
+        @Test
+        public void empty_input_gives_empty_stream() {
+            try (IntStream result = Stream.<String>empty().collect(toOffHeapIntStream(String::length))) {
+                assertThat(result.count(), is(0L));
+            }
+        }
+
+        @Test
+        public void closing_the_stream_drops_the_chunks_from_its_spliterator() {
+            IntStream result = Stream.of("cat", "dog").collect(toOffHeapIntStream(String::length));
+            Spliterator.OfInt spliterator = result.spliterator();
+            assertThat(((OffHeapBuffer.BaseSpliterator<?>) spliterator).isReleased(), is(false));
+            result.close();
+            assertThat(((OffHeapBuffer.BaseSpliterator<?>) spliterator).isReleased(), is(true));
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void spliterator_of_closed_stream_cannot_be_traversed() {
+            IntStream result = Stream.of("cat", "dog").collect(toOffHeapIntStream(String::length));
+            Spliterator.OfInt spliterator = result.spliterator();
+            result.close();
+            spliterator.tryAdvance((int i) -> { });
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void fail_fast_if_null_mapper_given() {
+            toOffHeapLongStream(null);
+        }
+    }
+
     public static class ToGroupedEntries {
         @Test
         public void group_elements_into_list_by_default() {
@@ -169,6 +337,53 @@ public class MoreCollectorsTest {
         }
     }
 
+    public static class ToGroupedMap {
+        @Test
+        public void group_elements_into_immutable_lists_in_encounter_order() {
+            List<String> src = asList("zero", "one", "two", "three", "four", "five", "six");
+            Map<Integer, List<String>> map = src.stream().collect(toGroupedMap(String::length));
+            assertThat(map.size(), is(3));
+            assertThat(map.get(3), is(asList("one", "two", "six")));
+            assertThat(map.get(4), is(asList("zero", "four", "five")));
+            assertThat(map.get(5), is(asList("three")));
+            assertThat(map.get(6), is(nullValue()));
+        }
+
+        @Test
+        public void group_many_keys_in_parallel() {
+            Map<Integer, List<Integer>> map = IntStream.range(0, 10000)
+                                                       .boxed()
+                                                       .parallel()
+                                                       .collect(toGroupedMap(i -> i % 1000));
+            assertThat(map.size(), is(1000));
+            assertThat(map.get(999), is(asList(999, 1999, 2999, 3999, 4999, 5999, 6999, 7999, 8999, 9999)));
+            assertThat(map, is(IntStream.range(0, 10000).boxed().collect(groupingBy(i -> i % 1000))));
+        }
+
+        @Test
+        public void group_elements_using_downstream_collector() {
+            List<String> src = asList("zero", "one", "two", "three", "four", "five", "six");
+            Map<Integer, Long> map = src.stream().collect(toGroupedMap(String::length, counting()));
+            assertThat(map.get(3), is(3L));
+            assertThat(map.get(5), is(1L));
+        }
+
+        @Test(expected = UnsupportedOperationException.class)
+        public void grouped_map_is_immutable() {
+            Stream.of("one").collect(toGroupedMap(String::length)).remove(3);
+        }
+
+        @Test(expected = UnsupportedOperationException.class)
+        public void grouped_lists_are_immutable() {
+            Stream.of("one").collect(toGroupedMap(String::length)).get(3).add("two");
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void fail_fast_if_null_key_mapper_given() {
+            toGroupedMap(null);
+        }
+    }
+
     public static class GroupingThenStreaming {
         private final BiFunction<Integer, List<String>, List<String>> addKeyAsString = (key, list) -> {
             list.add(0, String.valueOf(key));
@@ -213,4 +428,336 @@ public class MoreCollectorsTest {
                                  asList("5", "three!"))));
         }
     }
+
+    public static class Instrumented {
+        @Test
+        public void records_group_cardinality_of_grouping_collector() {
+            Map<Integer, List<String>> result = Stream.of("a", "on", "cat", "tri", "by")
+                                                      .collect(instrumented(groupingBy(String::length), "test-groups"));
+            StageMetrics metrics = StageMetrics.of("test-groups");
+            assertThat(result.get(3), is(asList("cat", "tri")));
+            assertThat(metrics.getElementCount(), is(5L));
+            assertThat(metrics.getFinishCount(), is(1L));
+            assertThat(metrics.getLastGroupCount(), is(3L));
+        }
+
+        @Test
+        public void records_combines_of_parallel_collection() {
+            List<Integer> result = IntStream.range(0, 100_000)
+                                            .boxed()
+                                            .parallel()
+                                            .collect(instrumented(toList(), "test-combines"));
+            StageMetrics metrics = StageMetrics.of("test-combines");
+            assertThat(result, is(IntStream.range(0, 100_000).boxed().collect(toList())));
+            assertThat(metrics.getCombineCount(), is(metrics.getContainerCount() - 1));
+            assertThat(metrics.getLastGroupCount(), is(100_000L));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void fail_fast_if_null_collector_given() {
+            instrumented(null, "test-null");
+        }
+    }
+
+    public static class Recorded {
+        @Test
+        public void emits_events_of_each_phase_while_recording() throws Exception {
+            Path dump = Files.createTempFile("recorded", ".jfr");
+            try (Recording recording = new Recording()) {
+                recording.enable("net.exoego.stream.CollectorAccumulate").withoutThreshold();
+                recording.enable("net.exoego.stream.CollectorCombine").withoutThreshold();
+                recording.enable("net.exoego.stream.CollectorFinish").withoutThreshold();
+                recording.start();
+                Map<Integer, List<Integer>> result = IntStream.range(0, 100_000)
+                                                              .boxed()
+                                                              .parallel()
+                                                              .collect(recorded(groupingBy(i -> i % 7), "test-jfr"));
+                assertThat(result.size(), is(7));
+                recording.stop();
+                recording.dump(dump);
+            }
+            try {
+                List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+                long accumulated = events.stream()
+                                         .filter(e -> e.getEventType().getName().endsWith("CollectorAccumulate"))
+                                         .mapToLong(e -> e.getLong("elements"))
+                                         .sum();
+                List<RecordedEvent> finishes = events.stream()
+                                                     .filter(e -> e.getEventType().getName().endsWith("CollectorFinish"))
+                                                     .collect(toList());
+                assertThat(accumulated, is(100_000L));
+                assertThat(finishes.size(), is(1));
+                assertThat(finishes.get(0).getString("stage"), is("test-jfr"));
+                assertThat(finishes.get(0).getLong("resultSize"), is(7L));
+            } finally {
+                Files.delete(dump);
+            }
+        }
+
+        @Test
+        public void counts_every_element_of_a_concurrent_collector_in_parallel() throws Exception {
+            Path dump = Files.createTempFile("recorded-concurrent", ".jfr");
+            try (Recording recording = new Recording()) {
+                recording.enable("net.exoego.stream.CollectorFinish").withoutThreshold();
+                recording.start();
+                ForkJoinPool pool = new ForkJoinPool(8);
+                try {
+                    Map<Integer, Integer> result = pool.submit(() -> IntStream.range(0, 1_000_000)
+                                                                              .boxed()
+                                                                              .parallel()
+                                                                              .collect(recorded(toConcurrentMap(i -> i, i -> i),
+                                                                                                "test-jfr-concurrent")))
+                                                       .get();
+                    assertThat(result.size(), is(1_000_000));
+                } finally {
+                    pool.shutdown();
+                }
+                recording.stop();
+                recording.dump(dump);
+            }
+            try {
+                List<RecordedEvent> finishes = RecordingFile.readAllEvents(dump)
+                                                            .stream()
+                                                            .filter(e -> e.getEventType().getName().endsWith("CollectorFinish"))
+                                                            .filter(e -> "test-jfr-concurrent".equals(e.getString("stage")))
+                                                            .collect(toList());
+                assertThat(finishes.size(), is(1));
+                assertThat(finishes.get(0).getLong("elements"), is(1_000_000L));
+            } finally {
+                Files.delete(dump);
+            }
+        }
+
+        @Test
+        public void collects_as_given_collector_without_recording() {
+            Stream<String> result = Stream.of("a", "on", "cat", "tri", "by")
+                                          .collect(recorded(groupingThenStreaming(String::length,
+                                                                                  (k, v) -> k + ":" + v.size()),
+                                                            "test-jfr-off"));
+            assertThat(result.sorted().collect(toList()), is(asList("1:1", "2:2", "3:2")));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void fail_fast_if_null_name_given() {
+            recorded(toList(), null);
+        }
+    }
+
+    public static class SkewAwareGroupingBy {
+        private static int skewedKey(int i) {
+            return i % 10 < 8 ? 0 : i % 97;
+        }
+
+        @Test
+        public void groups_as_groupingBy_does_in_sequential() {
+            Map<Integer, List<String>> result = Stream.of("a", "on", "cat", "tri", "by")
+                                                      .collect(skewAwareGroupingBy(String::length));
+            assertThat(result, is(Stream.of("a", "on", "cat", "tri", "by").collect(groupingBy(String::length))));
+        }
+
+        @Test
+        public void keeps_encounter_order_of_hot_groups_in_parallel() {
+            Map<Integer, List<Integer>> expected = IntStream.range(0, 200_000)
+                                                            .boxed()
+                                                            .collect(groupingBy(SkewAwareGroupingBy::skewedKey));
+            Map<Integer, List<Integer>> result = IntStream.range(0, 200_000)
+                                                          .boxed()
+                                                          .parallel()
+                                                          .collect(skewAwareGroupingBy(SkewAwareGroupingBy::skewedKey));
+            assertThat(result, is(expected));
+        }
+
+        @Test
+        public void applies_downstream_to_hot_and_cold_groups() {
+            Map<Integer, Long> result = IntStream.range(0, 200_000)
+                                                 .boxed()
+                                                 .parallel()
+                                                 .collect(skewAwareGroupingBy(SkewAwareGroupingBy::skewedKey, counting()));
+            assertThat(result.get(0) > 160_000L, is(true));
+            assertThat(result.values().stream().mapToLong(Long::longValue).sum(), is(200_000L));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void fail_if_element_is_mapped_to_null_key() {
+            Stream.of("a").collect(skewAwareGroupingBy(s -> null));
+        }
+    }
+
+    public static class GroupedLongReduction {
+        private static final List<String> WORDS = asList("The quick brown fox jumps over the lazy dog".split(" "));
+
+        @Test
+        public void counting_matches_groupingBy_counting() {
+            Map<Integer, Long> result = WORDS.stream().collect(toGroupedMap(String::length, LongReducer.counting()));
+            assertThat(result, is(WORDS.stream().collect(groupingBy(String::length, counting()))));
+        }
+
+        @Test
+        public void summing_min_and_max_in_parallel() {
+            Map<Integer, Long> sums = IntStream.range(0, 100_000).boxed().parallel()
+                                               .collect(toGroupedMap(i -> i % 1000, LongReducer.summing(i -> i)));
+            Map<Integer, Long> mins = IntStream.range(0, 100_000).boxed().parallel()
+                                               .collect(toGroupedMap(i -> i % 1000, LongReducer.min(i -> i)));
+            Map<Integer, Long> maxs = IntStream.range(0, 100_000).boxed().parallel()
+                                               .collect(toGroupedMap(i -> i % 1000, LongReducer.max(i -> i)));
+            assertThat(sums.size(), is(1000));
+            assertThat(sums.get(7), is(IntStream.range(0, 100).mapToLong(i -> i * 1000L + 7).sum()));
+            assertThat(mins.get(999), is(999L));
+            assertThat(maxs.get(0), is(99_000L));
+        }
+
+        @Test
+        public void grouped_entries_with_reducer() {
+            Map<Integer, Long> result = new TreeMap<>();
+            WORDS.stream()
+                 .collect(toGroupedEntries(String::length, LongReducer.counting()))
+                 .forEach(e -> result.put(e.getKey(), e.getValue()));
+            assertThat(result.toString(), is("{3=4, 4=2, 5=3}"));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void fail_if_element_is_mapped_to_null_key() {
+            WORDS.stream().collect(toGroupedMap(s -> null, LongReducer.counting()));
+        }
+    }
+
+    public static class ToSortedGroupedEntries {
+        private static final List<String> WORDS = asList("The quick brown fox jumps over the lazy dog".split(" "));
+
+        @Test
+        public void streams_groups_in_key_order() {
+            List<String> result = WORDS.stream()
+                                       .collect(toSortedGroupedEntries(String::length, toList()))
+                                       .map(e -> e.getKey() + "=" + e.getValue())
+                                       .collect(toList());
+            assertThat(result, is(asList("3=[The, fox, the, dog]", "4=[over, lazy]", "5=[quick, brown, jumps]")));
+        }
+
+        @Test
+        public void comparator_decides_key_equality() {
+            List<String> result = WORDS.stream()
+                                       .collect(toSortedGroupedEntries(s -> s.substring(0, 1),
+                                                                       String.CASE_INSENSITIVE_ORDER,
+                                                                       counting()))
+                                       .map(e -> e.getKey() + "=" + e.getValue())
+                                       .collect(toList());
+            assertThat(result, is(asList("b=1", "d=1", "f=1", "j=1", "l=1", "o=1", "q=1", "T=2")));
+        }
+
+        @Test
+        public void int_keys_match_groupingBy_in_parallel() {
+            Map<Integer, List<Integer>> expected = new TreeMap<>(IntStream.range(0, 100_000)
+                                                                          .boxed()
+                                                                          .collect(groupingBy(i -> (i * 7919) % 5003 - 2500)));
+            List<Entry<Integer, List<Integer>>> result = IntStream.range(0, 100_000)
+                                                                  .boxed()
+                                                                  .parallel()
+                                                                  .collect(toSortedGroupedEntriesByInt(i -> (i * 7919) % 5003 - 2500,
+                                                                                                       toList()))
+                                                                  .collect(toList());
+            assertThat(result, is(new ArrayList<>(expected.entrySet())));
+        }
+
+        @Test
+        public void empty_input_gives_no_group() {
+            assertThat(Stream.<String>empty().collect(toSortedGroupedEntriesByInt(String::length, toList())).count(), is(0L));
+        }
+    }
+
+    public static class ToGroupingIndex {
+        private static final List<String> WORDS = asList("The quick brown fox jumps over the lazy dog".split(" "));
+        private static final Function<String, Integer> LENGTH = String::length;
+
+        @Test
+        public void runs_many_downstreams_over_one_index() {
+            GroupingIndex<String, Integer> index = WORDS.stream().collect(toGroupingIndex(String::length));
+            assertThat(index.groupCount(), is(3));
+            assertThat(index.size(), is(9));
+            assertThat(index.group(3), is(asList("The", "fox", "the", "dog")));
+            assertThat(index.group(7).isEmpty(), is(true));
+            assertThat(index.toGroupedEntries(counting()).map(Object::toString).collect(toList()),
+                       is(asList("3=4", "5=3", "4=2")));
+            assertThat(index.groupingThenStreaming(joining(","), (k, v) -> k + ":" + v).collect(toList()),
+                       is(asList("3:The,fox,the,dog", "5:quick,brown,jumps", "4:over,lazy")));
+        }
+
+        @Test
+        public void parallel_reduction_over_groups_matches_groupingBy() {
+            List<Integer> src = IntStream.range(0, 50_000).boxed().collect(toList());
+            GroupingIndex<Integer, Integer> index = GroupingIndex.of(src, i -> i % 1000);
+            Map<Integer, Long> result = index.toGroupedEntries(summingLong(i -> i))
+                                             .parallel()
+                                             .collect(toMap(Entry::getKey, Entry::getValue));
+            assertThat(result, is(src.stream().collect(groupingBy(i -> i % 1000, summingLong(i -> i)))));
+        }
+
+        @Test
+        public void cache_reuses_index_until_version_changes() {
+            GroupingIndex.Cache cache = new GroupingIndex.Cache(2);
+            List<String> snapshot = new ArrayList<>(WORDS);
+            GroupingIndex<String, Integer> first = cache.get(snapshot, 1L, LENGTH);
+            assertThat(cache.get(snapshot, 1L, LENGTH) == first, is(true));
+            assertThat(cache.get(new ArrayList<>(WORDS), 1L, LENGTH) == first, is(false));
+            snapshot.add("elephant");
+            GroupingIndex<String, Integer> second = cache.get(snapshot, 2L, LENGTH);
+            assertThat(second.group(8), is(asList("elephant")));
+            assertThat(cache.size(), is(2));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void fail_if_element_is_mapped_to_null_key() {
+            GroupingIndex.of(WORDS, s -> null);
+        }
+    }
+
+    public static class ToColumns {
+        private static final List<String> WORDS = asList("The quick brown fox jumps over the lazy dog".split(" "));
+
+        private static ColumnTable table(Stream<String> words) {
+            return words.collect(toColumns(asList(String::length, s -> s.charAt(0)),
+                                           asList(s -> s.length() / 2.0),
+                                           asList((String s) -> s.length() % 2 == 0, String::toLowerCase)));
+        }
+
+        @Test
+        public void exposes_primitive_columns_in_encounter_order() {
+            ColumnTable table = table(WORDS.stream());
+            assertThat(table.rowCount(), is(9));
+            assertThat(table.intColumn(0).toArray(), is(new int[]{3, 5, 5, 3, 5, 4, 3, 4, 3}));
+            assertThat(table.intColumn(1).max().getAsInt(), is((int) 't'));
+            assertThat(table.doubleColumn(0).sum(), is(17.5));
+        }
+
+        @Test
+        public void dictionary_encodes_key_columns() {
+            ColumnTable table = table(WORDS.stream());
+            assertThat(table.dictionary(0), is(asList((Object) false, true)));
+            assertThat(table.codes(0).toArray(), is(new int[]{0, 0, 0, 0, 0, 1, 0, 1, 0}));
+            assertThat(table.dictionary(1).size(), is(8));
+            assertThat(table.countBy(1)[table.dictionary(1).indexOf("the")], is(2L));
+        }
+
+        @Test
+        public void groups_by_codes() {
+            ColumnTable table = table(WORDS.stream());
+            assertThat(table.countBy(0), is(new long[]{7, 2}));
+            assertThat(table.sumIntBy(0, 0), is(new long[]{27, 8}));
+            assertThat(table.sumDoubleBy(0, 0), is(new double[]{13.5, 4.0}));
+        }
+
+        @Test
+        public void parallel_collection_remaps_codes() {
+            List<String> src = IntStream.range(0, 100_000).mapToObj(i -> "k" + i % 37).collect(toList());
+            ColumnTable table = table(src.parallelStream());
+            List<Object> dictionary = table.dictionary(1);
+            assertThat(dictionary.size(), is(37));
+            assertThat(table.codes(1).mapToObj(dictionary::get).collect(toList()), is((Object) src));
+            assertThat(table.countBy(1)[dictionary.indexOf("k0")], is(2703L));
+        }
+
+        @Test(expected = IndexOutOfBoundsException.class)
+        public void fail_if_no_such_column() {
+            table(WORDS.stream()).doubleColumn(1);
+        }
+    }
 }
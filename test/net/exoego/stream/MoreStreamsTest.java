@@ -1,15 +1,48 @@
 package net.exoego.stream;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 
 import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingInt;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -48,4 +81,906 @@ public class MoreStreamsTest {
         final int negative = (r == Integer.MIN_VALUE) ? r : Math.negateExact(r);
         MoreStreams.grouped(Stream.empty(), negative);
     }
+
+    public static class MergeSorted {
+        @Test
+        public void merges_sorted_streams_into_a_sorted_stream() {
+            List<Stream<Integer>> sources = asList(Stream.of(1, 4, 7, 10),
+                                                   Stream.of(2, 5, 8),
+                                                   Stream.empty(),
+                                                   Stream.of(3, 6, 9, 11, 12));
+            List<Integer> result = MoreStreams.mergeSorted(sources, Comparator.naturalOrder()).collect(toList());
+            assertThat(result, is(asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12)));
+        }
+
+        @Test
+        public void equal_elements_are_emitted_in_the_order_of_sources() {
+            List<Stream<String>> sources = asList(Stream.of("a1", "b1"), Stream.of("a2", "b2"), Stream.of("a3"));
+            Comparator<String> byFirstChar = Comparator.comparing(s -> s.charAt(0));
+            List<String> result = MoreStreams.mergeSorted(sources, byFirstChar).collect(toList());
+            assertThat(result, is(asList("a1", "a2", "a3", "b1", "b2")));
+        }
+
+        @Test
+        public void merges_many_random_sources_as_sorting_does() {
+            Random random = new Random(26);
+            List<List<Integer>> lists = new ArrayList<>();
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 37; i++) {
+                List<Integer> list = new ArrayList<>();
+                for (int j = random.nextInt(50); j > 0; j--) {
+                    list.add(random.nextInt(1000));
+                }
+                Collections.sort(list);
+                lists.add(list);
+                expected.addAll(list);
+            }
+            Collections.sort(expected);
+            List<Stream<Integer>> sources = new ArrayList<>();
+            lists.forEach(list -> sources.add(list.stream()));
+            assertThat(MoreStreams.mergeSorted(sources, Comparator.naturalOrder()).collect(toList()), is(expected));
+        }
+
+        @Test
+        public void returns_empty_if_no_source_given() {
+            List<Stream<Integer>> sources = Collections.emptyList();
+            assertThat(MoreStreams.mergeSorted(sources, Comparator.naturalOrder()).count(), is(0L));
+        }
+
+        @Test
+        public void closing_merged_stream_closes_all_sources() {
+            AtomicInteger closed = new AtomicInteger();
+            List<Stream<Integer>> sources = asList(Stream.of(1).onClose(closed::incrementAndGet),
+                                                   Stream.of(2).onClose(closed::incrementAndGet));
+            MoreStreams.mergeSorted(sources, Comparator.naturalOrder()).close();
+            assertThat(closed.get(), is(2));
+        }
+
+        @Test
+        public void merges_sorted_IntStreams() {
+            List<IntStream> sources = asList(IntStream.of(-5, 0, 5), IntStream.range(1, 4), IntStream.of(2, 2));
+            assertThat(MoreStreams.mergeSortedInts(sources).toArray(), is(new int[]{-5, 0, 1, 2, 2, 2, 3, 5}));
+        }
+
+        @Test
+        public void merges_sorted_LongStreams() {
+            List<LongStream> sources = asList(LongStream.of(Long.MIN_VALUE, 10L), LongStream.of(3L, Long.MAX_VALUE));
+            assertThat(MoreStreams.mergeSortedLongs(sources).toArray(),
+                       is(new long[]{Long.MIN_VALUE, 3L, 10L, Long.MAX_VALUE}));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void fail_fast_if_null_comparator_given() {
+            MoreStreams.mergeSorted(asList(Stream.of(1)), null);
+        }
+    }
+
+    public static class ToImmutableList {
+        @Test
+        public void collects_mapped_elements_of_sized_stream() {
+            List<Integer> result = MoreStreams.toImmutableList(asList("a", "on", "cat").stream(), String::length);
+            assertThat(result, is(asList(1, 2, 3)));
+        }
+
+        @Test
+        public void collects_mapped_elements_of_unsized_stream() {
+            Stream<String> unsized = Stream.of("a", "on", "cat", "tri").filter(s -> s.length() > 1);
+            assertThat(MoreStreams.toImmutableList(unsized, String::length), is(asList(2, 3, 3)));
+        }
+
+        @Test(expected = UnsupportedOperationException.class)
+        public void returns_an_immutable_list() {
+            MoreStreams.toImmutableList(Stream.of("a"), String::length).set(0, 2);
+        }
+    }
+
+    public static class Grouped {
+        @Test
+        public void the_last_group_has_exactly_the_rest_of_elements() {
+            List<List<Integer>> result = MoreStreams.grouped(Stream.of(1, 2, 3, 4, 5, 6, 7), 3).collect(toList());
+            assertThat(result, is(asList(asList(1, 2, 3), asList(4, 5, 6), asList(7))));
+        }
+
+        @Test
+        public void groups_are_lazily_pulled_from_infinite_stream() {
+            Stream<List<Integer>> grouped = MoreStreams.grouped(Stream.iterate(0, i -> i + 1), 2);
+            assertThat(grouped.skip(1).findFirst().get(), is(asList(2, 3)));
+        }
+
+        @Test
+        public void returns_empty_if_base_stream_is_empty() {
+            assertThat(MoreStreams.grouped(Stream.empty(), 3).count(), is(0L));
+        }
+
+        @Test(expected = UnsupportedOperationException.class)
+        public void groups_are_immutable() {
+            MoreStreams.grouped(Stream.of(1, 2), 2).findFirst().get().add(3);
+        }
+
+        @Test
+        public void closing_grouped_stream_closes_base_stream() {
+            AtomicInteger closed = new AtomicInteger();
+            MoreStreams.grouped(Stream.of(1).onClose(closed::incrementAndGet), 2).close();
+            assertThat(closed.get(), is(1));
+        }
+    }
+
+    public static class GroupAdjacent {
+        @Test
+        public void groups_each_run_of_adjacent_elements() {
+            Stream<String> src = Stream.of("a", "b", "cc", "dd", "e", "fff", "g", "h");
+            List<String> result = MoreStreams.groupAdjacent(src, String::length, (k, list) -> k + "=" + list)
+                                             .collect(toList());
+            assertThat(result, is(asList("1=[a, b]", "2=[cc, dd]", "1=[e]", "3=[fff]", "1=[g, h]")));
+        }
+
+        @Test
+        public void groups_with_downstream_collector() {
+            Stream<String> src = Stream.of("a", "b", "cc", "dd", "ee", "f");
+            List<String> result = MoreStreams.groupAdjacent(src, String::length, counting(), (k, n) -> k + ":" + n)
+                                             .collect(toList());
+            assertThat(result, is(asList("1:2", "2:3", "1:1")));
+        }
+
+        @Test
+        public void emits_groups_of_infinite_stream_lazily() {
+            AtomicInteger pulled = new AtomicInteger();
+            Stream<Integer> src = Stream.iterate(0, i -> i + 1).peek(i -> pulled.incrementAndGet());
+            List<Integer> result = MoreStreams.groupAdjacent(src, i -> i / 10, summingInt(i -> i), (k, sum) -> sum)
+                                              .limit(2)
+                                              .collect(toList());
+            assertThat(result, is(asList(45, 145)));
+            assertThat(pulled.get(), is(21));
+        }
+
+        @Test
+        public void groups_null_keys_together() {
+            Stream<String> src = Stream.of("a", "", "", "b");
+            List<List<String>> result = MoreStreams.groupAdjacent(src,
+                                                                  s -> s.isEmpty() ? null : s,
+                                                                  (String k, List<String> list) -> list)
+                                                   .collect(toList());
+            assertThat(result, is(asList(asList("a"), asList("", ""), asList("b"))));
+        }
+
+        @Test
+        public void returns_empty_if_stream_is_empty() {
+            assertThat(MoreStreams.groupAdjacent(Stream.empty(), e -> e, (k, list) -> list).count(), is(0L));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void fail_fast_if_null_key_mapper_given() {
+            MoreStreams.groupAdjacent(Stream.of(1), null, (k, list) -> list);
+        }
+    }
+
+    public static class MapAsync {
+        private static int slowSquare(int i) {
+            try {
+                Thread.sleep((i * 7) % 5);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return i * i;
+        }
+
+        @Test
+        public void ordered_mapping_keeps_encounter_order() {
+            List<Integer> result = MoreStreams.mapAsync(IntStream.range(0, 50).boxed(), MapAsync::slowSquare, 8, true)
+                                              .collect(toList());
+            assertThat(result, is(IntStream.range(0, 50).map(i -> i * i).boxed().collect(toList())));
+        }
+
+        @Test
+        public void unordered_mapping_emits_all_results() {
+            Set<Integer> result = MoreStreams.mapAsync(IntStream.range(0, 50).boxed(), MapAsync::slowSquare, 8, false)
+                                             .collect(toSet());
+            assertThat(result, is(IntStream.range(0, 50).map(i -> i * i).boxed().collect(toSet())));
+        }
+
+        @Test
+        public void never_exceeds_max_concurrency() {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            MoreStreams.mapAsync(IntStream.range(0, 100).boxed(), i -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                slowSquare(i);
+                return running.decrementAndGet();
+            }, 4, false).forEach(i -> {});
+            assertThat(peak.get() <= 4, is(true));
+        }
+
+        @Test
+        public void pulls_source_no_further_than_the_window() {
+            AtomicInteger pulled = new AtomicInteger();
+            Stream<Integer> src = Stream.iterate(0, i -> i + 1).peek(i -> pulled.incrementAndGet());
+            List<Integer> result = MoreStreams.mapAsync(src, i -> i * 2, 3, true).limit(5).collect(toList());
+            assertThat(result, is(asList(0, 2, 4, 6, 8)));
+            assertThat(pulled.get() <= 5 + 3, is(true));
+        }
+
+        @Test
+        public void runs_on_given_executor() {
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            ExecutorService executor = Executors.newFixedThreadPool(2, r -> new Thread(r, "given-executor"));
+            try {
+                MoreStreams.mapAsync(Stream.of(1, 2, 3), i -> threads.add(Thread.currentThread().getName()), 2, true,
+                                     executor).forEach(b -> {});
+            } finally {
+                executor.shutdown();
+            }
+            assertThat(threads, is(Collections.singleton("given-executor")));
+        }
+
+        @Test(timeout = 10_000)
+        public void closing_interrupts_running_mapper_on_given_executor() throws InterruptedException {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Stream<Integer> results = MoreStreams.mapAsync(Stream.of(1, 2), i -> {
+                    if (i == 2) {
+                        started.countDown();
+                        try {
+                            Thread.sleep(60_000);
+                        } catch (InterruptedException e) {
+                            interrupted.countDown();
+                        }
+                    }
+                    return i;
+                }, 2, false, executor);
+                assertThat(results.iterator().next(), is(1));
+                started.await();
+                results.close();
+                interrupted.await();
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void rethrows_failure_of_mapper() {
+            MoreStreams.mapAsync(Stream.of(1, 2, 3), i -> {
+                if (i == 2) {
+                    throw new IllegalStateException("failed");
+                }
+                return i;
+            }, 2, true).forEach(i -> {});
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void fail_fast_if_non_positive_concurrency_given() {
+            MoreStreams.mapAsync(Stream.of(1), i -> i, 0, true);
+        }
+    }
+
+    public static class FlowBridge {
+        @Test
+        public void round_trip_through_publisher_keeps_elements_and_order() {
+            Flow.Publisher<Integer> publisher = MoreStreams.toPublisher(IntStream.range(0, 1000).boxed());
+            List<Integer> result = MoreStreams.fromPublisher(publisher, 16).collect(toList());
+            assertThat(result, is(IntStream.range(0, 1000).boxed().collect(toList())));
+        }
+
+        @Test
+        public void stream_is_pulled_no_further_than_requested() {
+            AtomicInteger pulled = new AtomicInteger();
+            Stream<Integer> src = Stream.iterate(0, i -> i + 1).peek(i -> pulled.incrementAndGet());
+            List<Integer> received = new ArrayList<>();
+            MoreStreams.toPublisher(src).subscribe(new Flow.Subscriber<Integer>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(3);
+                }
+
+                @Override
+                public void onNext(Integer item) {
+                    received.add(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {}
+
+                @Override
+                public void onComplete() {}
+            });
+            assertThat(received, is(asList(0, 1, 2)));
+            assertThat(pulled.get(), is(3));
+        }
+
+        @Test
+        public void pulls_items_pushed_from_another_thread() throws Exception {
+            SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>();
+            Thread producer = new Thread(() -> {
+                while (publisher.getNumberOfSubscribers() == 0) {
+                    Thread.yield();
+                }
+                IntStream.range(0, 500).forEach(publisher::submit);
+                publisher.close();
+            });
+            producer.start();
+            long sum = MoreStreams.fromPublisher(publisher, 8).mapToLong(Integer::longValue).sum();
+            producer.join();
+            assertThat(sum, is(124750L));
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void rethrows_error_signaled_by_publisher() {
+            SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>(Runnable::run, 16);
+            Stream<Integer> stream = MoreStreams.fromPublisher(publisher, 4);
+            new Thread(() -> {
+                while (publisher.getNumberOfSubscribers() == 0) {
+                    Thread.yield();
+                }
+                publisher.closeExceptionally(new IllegalStateException("broken feed"));
+            }).start();
+            stream.forEach(i -> {});
+        }
+
+        @Test
+        public void processor_publishes_result_of_each_chunk() {
+            Flow.Processor<Integer, List<Integer>> processor = MoreStreams.collectingProcessor(toList(), 3);
+            MoreStreams.toPublisher(IntStream.range(0, 8).boxed()).subscribe(processor);
+            List<List<Integer>> result = MoreStreams.fromPublisher(processor, 1).collect(toList());
+            assertThat(result, is(asList(asList(0, 1, 2), asList(3, 4, 5), asList(6, 7))));
+        }
+
+        @Test
+        public void processor_publishes_single_result_for_whole_feed() {
+            Flow.Processor<String, Map<Integer, Long>> processor =
+                    MoreStreams.collectingProcessor(groupingBy(String::length, counting()), Integer.MAX_VALUE);
+            MoreStreams.toPublisher(Stream.of("a", "bb", "cc", "ddd")).subscribe(processor);
+            List<Map<Integer, Long>> result = MoreStreams.fromPublisher(processor, 4).collect(toList());
+            assertThat(result.size(), is(1));
+            assertThat(result.get(0).get(2), is(2L));
+        }
+
+        @Test
+        public void processor_publishes_empty_result_for_empty_feed() {
+            Flow.Processor<Integer, Long> processor = MoreStreams.collectingProcessor(counting(), 10);
+            MoreStreams.toPublisher(Stream.<Integer>empty()).subscribe(processor);
+            assertThat(MoreStreams.fromPublisher(processor, 1).collect(toList()), is(asList(0L)));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void fail_fast_if_non_positive_prefetch_given() {
+            MoreStreams.fromPublisher(new SubmissionPublisher<>(), 0);
+        }
+    }
+
+    public static class Windowed {
+        private static long time(String event) {
+            return Long.parseLong(event.substring(1));
+        }
+
+        private static String host(String event) {
+            return event.substring(0, 1);
+        }
+
+        @Test
+        public void tumbling_windows_reduce_each_key() {
+            Stream<String> events = Stream.of("a1", "b2", "a3", "a12", "b15", "b21");
+            List<String> result = MoreStreams.windowed(events, Windowed::time, 10, Windowed::host, counting())
+                                             .map(Window::toString)
+                                             .collect(toList());
+            assertThat(result, is(asList("a [0, 10)=2", "b [0, 10)=1", "a [10, 20)=1", "b [10, 20)=1",
+                                         "b [20, 30)=1")));
+        }
+
+        @Test
+        public void hopping_windows_assign_element_to_overlapping_windows() {
+            Stream<String> events = Stream.of("a1", "a6", "a11");
+            List<String> result = MoreStreams.windowed(events, Windowed::time, 10, 5, 0, Windowed::host, counting())
+                                             .map(Window::toString)
+                                             .collect(toList());
+            assertThat(result, is(asList("a [-5, 5)=1", "a [0, 10)=2", "a [5, 15)=2", "a [10, 20)=1")));
+        }
+
+        @Test
+        public void late_elements_within_allowed_lateness_are_counted() {
+            Stream<String> events = Stream.of("a1", "a11", "a9", "a25", "a8");
+            List<String> strict = MoreStreams.windowed(Stream.of("a1", "a11", "a9", "a25", "a8"),
+                                                       Windowed::time, 10, 10, 0, Windowed::host, counting())
+                                             .map(Window::toString)
+                                             .collect(toList());
+            assertThat(strict, is(asList("a [0, 10)=1", "a [10, 20)=1", "a [20, 30)=1")));
+            List<String> lenient = MoreStreams.windowed(events, Windowed::time, 10, 10, 5, Windowed::host, counting())
+                                              .map(Window::toString)
+                                              .collect(toList());
+            assertThat(lenient, is(asList("a [0, 10)=2", "a [10, 20)=1", "a [20, 30)=1")));
+        }
+
+        @Test
+        public void closed_windows_of_infinite_stream_are_emitted_lazily() {
+            Stream<Long> ticks = Stream.iterate(0L, t -> t + 1);
+            List<Window<Boolean, Long>> result = MoreStreams.windowed(ticks, t -> t, 100, t -> t % 2 == 0, counting())
+                                                            .limit(4)
+                                                            .collect(toList());
+            assertThat(result.get(3), is(new Window<>(false, 100, 200, 50L)));
+        }
+
+        @Test
+        public void windows_are_reported_in_encounter_order() {
+            Spliterator<Window<Long, Long>> windows = MoreStreams.windowed(Stream.of(1L), t -> t, 10, t -> t, counting())
+                                                                 .spliterator();
+            assertThat(windows.hasCharacteristics(Spliterator.ORDERED), is(true));
+        }
+
+        @Test
+        public void more_overlapping_windows_than_cached_count_each_element_once_per_window() {
+            List<Window<Integer, Long>> result = MoreStreams.windowed(LongStream.range(0, 200).boxed(),
+                                                                      t -> t, 100, 1, 0, t -> 0, counting())
+                                                            .collect(toList());
+            assertThat(result.size(), is(299));
+            assertThat(result.get(149), is(new Window<>(0, 50, 150, 100L)));
+            assertThat(result.stream().mapToLong(Window::value).sum(), is(20_000L));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void fail_fast_if_non_positive_window_length_given() {
+            MoreStreams.windowed(Stream.of(1L), t -> t, 0, t -> t, counting());
+        }
+    }
+
+    public static class MappedFiles {
+        private Path file;
+
+        @Before
+        public void createFile() throws IOException {
+            file = Files.createTempFile("MoreStreamsTest", ".bin");
+            file.toFile().deleteOnExit();
+        }
+
+        @After
+        public void deleteFile() throws IOException {
+            Files.deleteIfExists(file);
+        }
+
+        @Test
+        public void reads_ints_written_by_DataOutputStream() throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                for (int i = -5; i < 5; i++) {
+                    out.writeInt(i * 1000);
+                }
+            }
+            assertThat(MoreStreams.mappedInts(file).toArray(), is(IntStream.range(-5, 5).map(i -> i * 1000).toArray()));
+        }
+
+        @Test
+        public void reads_large_file_of_longs_in_parallel() throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                for (long i = 0; i < 200000; i++) {
+                    out.writeLong(i);
+                }
+            }
+            LongStream longs = MoreStreams.mappedLongs(file);
+            assertThat(longs.spliterator().getExactSizeIfKnown(), is(200000L));
+            assertThat(MoreStreams.mappedLongs(file).parallel().sum(), is(199999L * 200000L / 2));
+            assertThat(MoreStreams.mappedLongs(file).parallel().skip(150000).findFirst().getAsLong(), is(150000L));
+        }
+
+        @Test
+        public void reads_little_endian_doubles() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putDouble(0.5).putDouble(-1.25).putDouble(1e300);
+            Files.write(file, buffer.array());
+            assertThat(MoreStreams.mappedDoubles(file, ByteOrder.LITTLE_ENDIAN).toArray(),
+                       is(new double[]{0.5, -1.25, 1e300}));
+        }
+
+        @Test
+        public void decodes_fixed_width_records() throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                for (int i = 0; i < 5000; i++) {
+                    out.writeInt(i);
+                    out.writeShort(i % 7);
+                }
+            }
+            List<String> records = MoreStreams.mappedRecords(file, 6, b -> b.getInt() + ":" + b.getShort())
+                                              .parallel()
+                                              .collect(toList());
+            assertThat(records.size(), is(5000));
+            assertThat(records.get(4999), is("4999:1"));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void fail_fast_if_file_size_is_not_a_multiple_of_element_size() throws IOException {
+            Files.write(file, new byte[]{1, 2, 3, 4, 5});
+            MoreStreams.mappedInts(file);
+        }
+    }
+
+    public static class TextFiles {
+        private Path file;
+
+        @Before
+        public void createFile() throws IOException {
+            file = Files.createTempFile("MoreStreamsTest", ".txt");
+            file.toFile().deleteOnExit();
+        }
+
+        @After
+        public void deleteFile() throws IOException {
+            Files.deleteIfExists(file);
+        }
+
+        @Test
+        public void reads_lines_as_Files_lines_does() throws IOException {
+            Files.write(file, "john,DEVELOPMENT,100\r\n\u3042\u3044,OPERATIONS,80\n\nlast".getBytes(StandardCharsets.UTF_8));
+            assertThat(MoreStreams.lines(file, StandardCharsets.UTF_8).collect(toList()),
+                       is(Files.readAllLines(file, StandardCharsets.UTF_8)));
+        }
+
+        @Test
+        public void reads_large_file_in_parallel_keeping_order() throws IOException {
+            List<String> expected = IntStream.range(0, 100000).mapToObj(i -> "line" + i).collect(toList());
+            Files.write(file, expected, StandardCharsets.UTF_8);
+            Stream<String> lines = MoreStreams.lines(file, StandardCharsets.UTF_8).parallel();
+            assertThat(lines.collect(toList()), is(expected));
+        }
+
+        @Test
+        public void falls_back_for_non_ASCII_compatible_charset() throws IOException {
+            Files.write(file, asList("a", "b"), StandardCharsets.UTF_16);
+            assertThat(MoreStreams.lines(file, StandardCharsets.UTF_16).collect(toList()), is(asList("a", "b")));
+        }
+
+        @Test
+        public void splits_records_by_delimiter() throws IOException {
+            Files.write(file, "a,bb,,ccc,".getBytes(StandardCharsets.US_ASCII));
+            assertThat(MoreStreams.records(file, ',', StandardCharsets.US_ASCII).collect(toList()),
+                       is(asList("a", "bb", "", "ccc")));
+        }
+
+        @Test
+        public void exposes_lines_as_views() throws IOException {
+            Files.write(file, asList("100", "2500", "-7"), StandardCharsets.US_ASCII);
+            List<CharSequence> views = MoreStreams.lineViews(file).collect(toList());
+            assertThat(views.get(1).length(), is(4));
+            assertThat(views.get(1).charAt(1), is('5'));
+            assertThat(views.get(1).subSequence(1, 3).toString(), is("50"));
+            assertThat(MoreStreams.lineViews(file).mapToInt(cs -> Integer.parseInt(cs, 0, cs.length(), 10)).sum(),
+                       is(2593));
+        }
+
+        @Test
+        public void empty_file_has_no_lines() throws IOException {
+            assertThat(MoreStreams.lines(file, StandardCharsets.UTF_8).count(), is(0L));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void fail_fast_if_non_ASCII_delimiter_given() throws IOException {
+            MoreStreams.records(file, '\u3042', StandardCharsets.UTF_8);
+        }
+    }
+
+    public static class Instrumented {
+        @Test
+        public void counts_elements_passing_through() {
+            List<Integer> result = MoreStreams.instrumented(Stream.of(1, 2, 3, 4), "test-sequential")
+                                              .filter(i -> i % 2 == 0)
+                                              .collect(toList());
+            assertThat(result, is(asList(2, 4)));
+            assertThat(StageMetrics.of("test-sequential").getElementCount(), is(4L));
+        }
+
+        @Test
+        public void counts_short_circuited_elements_one_by_one() {
+            MoreStreams.instrumented(IntStream.range(0, 100).boxed(), "test-short-circuit").anyMatch(i -> i == 9);
+            assertThat(StageMetrics.of("test-short-circuit").getElementCount(), is(10L));
+        }
+
+        @Test
+        public void counts_splits_of_parallel_stream() {
+            long sum = MoreStreams.instrumented(IntStream.range(0, 100_000).boxed().parallel(), "test-parallel")
+                                  .mapToLong(i -> i)
+                                  .sum();
+            StageMetrics metrics = StageMetrics.of("test-parallel");
+            assertThat(sum, is(4_999_950_000L));
+            assertThat(metrics.getElementCount(), is(100_000L));
+            assertThat(metrics.getSplitCount() > 0, is(true));
+            assertThat(metrics.getSplitCountPerThread().values().stream().mapToLong(Long::longValue).sum(),
+                       is(metrics.getSplitCount()));
+        }
+
+        @Test
+        public void metrics_are_registered_to_jmx() throws Exception {
+            MoreStreams.instrumented(Stream.of("a", "b"), "test-jmx").count();
+            Object count = ManagementFactory.getPlatformMBeanServer()
+                                            .getAttribute(StageMetrics.objectName("test-jmx"), "ElementCount");
+            assertThat(count, is((Object) StageMetrics.of("test-jmx").getElementCount()));
+        }
+
+        @Test
+        public void removed_metrics_are_unregistered_from_jmx_and_recreated_empty() throws Exception {
+            MoreStreams.instrumented(Stream.of("a", "b"), "test-remove").count();
+            StageMetrics removed = StageMetrics.of("test-remove");
+            assertThat(StageMetrics.remove("test-remove"), is(true));
+            assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(StageMetrics.objectName("test-remove")),
+                       is(false));
+            assertThat(StageMetrics.remove("test-remove"), is(false));
+            StageMetrics recreated = StageMetrics.of("test-remove");
+            assertThat(recreated == removed, is(false));
+            assertThat(recreated.getElementCount(), is(0L));
+            assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(StageMetrics.objectName("test-remove")),
+                       is(true));
+        }
+
+        @Test(expected = NullPointerException.class)
+        public void fail_fast_if_null_name_given() {
+            MoreStreams.instrumented(Stream.of(1), null);
+        }
+    }
+
+    public static class CollectUntil {
+        @Test
+        public void firstN_stops_pulling_once_saturated() {
+            AtomicInteger pulled = new AtomicInteger();
+            List<Integer> result = MoreStreams.collectUntil(Stream.iterate(0, i -> i + 1).peek(i -> pulled.incrementAndGet()),
+                                                            MoreCollectors.firstN(3));
+            assertThat(result, is(asList(0, 1, 2)));
+            assertThat(pulled.get(), is(3));
+        }
+
+        @Test
+        public void groupingLimit_stops_when_all_expected_groups_are_full() {
+            AtomicInteger pulled = new AtomicInteger();
+            Map<Integer, List<Integer>> result =
+                    MoreStreams.collectUntil(IntStream.range(0, 1_000_000).boxed().peek(i -> pulled.incrementAndGet()),
+                                             MoreCollectors.groupingLimit(i -> i % 3, 2, 3));
+            assertThat(result.get(0), is(asList(0, 3)));
+            assertThat(result.get(1), is(asList(1, 4)));
+            assertThat(result.get(2), is(asList(2, 5)));
+            assertThat(pulled.get(), is(6));
+        }
+
+        @Test
+        public void anyMatchPerGroup_stops_when_all_expected_groups_matched() {
+            AtomicInteger pulled = new AtomicInteger();
+            Map<Boolean, Boolean> result =
+                    MoreStreams.collectUntil(IntStream.range(0, 1_000_000).boxed().peek(i -> pulled.incrementAndGet()),
+                                             MoreCollectors.anyMatchPerGroup(i -> i % 2 == 0, i -> i > 10, 2));
+            assertThat(result.get(true), is(true));
+            assertThat(result.get(false), is(true));
+            assertThat(pulled.get(), is(13));
+        }
+
+        @Test
+        public void consumes_everything_if_never_saturated() {
+            Map<Integer, Boolean> result = MoreStreams.collectUntil(Stream.of("a", "on", "cat"),
+                                                                    MoreCollectors.anyMatchPerGroup(String::length,
+                                                                                                    s -> s.startsWith("c")));
+            assertThat(result.get(1), is(false));
+            assertThat(result.get(3), is(true));
+        }
+
+        @Test
+        public void short_circuiting_collectors_also_work_with_plain_collect_in_parallel() {
+            Map<Integer, List<Integer>> result = IntStream.range(0, 100_000)
+                                                          .boxed()
+                                                          .parallel()
+                                                          .collect(MoreCollectors.groupingLimit(i -> i % 10, 3));
+            assertThat(result.size(), is(10));
+            assertThat(result.get(9), is(asList(9, 19, 29)));
+            assertThat(IntStream.range(0, 100_000).boxed().parallel().collect(MoreCollectors.firstN(2)), is(asList(0, 1)));
+        }
+
+        @Test
+        public void collectUntil_with_custom_saturation() {
+            Collector<Integer, List<Integer>, List<Integer>> toArrayList = Collector.of(ArrayList::new, List::add, (l, r) -> {
+                l.addAll(r);
+                return l;
+            });
+            List<Integer> result = MoreStreams.collectUntil(Stream.iterate(1, i -> i * 2),
+                                                            toArrayList,
+                                                            list -> list.size() == 5);
+            assertThat(result, is(asList(1, 2, 4, 8, 16)));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void firstN_fail_fast_if_0_given() {
+            MoreCollectors.firstN(0);
+        }
+    }
+
+    public static class DistinctBy {
+        private static final List<String> WORDS = asList("The quick brown fox jumps over the lazy dog".split(" "));
+
+        @Test
+        public void keeps_first_element_of_each_key() {
+            List<String> result = MoreStreams.distinctBy(WORDS.stream(), String::length).collect(toList());
+            assertThat(result, is(asList("The", "quick", "over")));
+        }
+
+        @Test
+        public void null_is_a_key() {
+            List<String> result = MoreStreams.distinctBy(Stream.of("a", "b", "c"), s -> s.equals("b") ? "x" : null)
+                                             .collect(toList());
+            assertThat(result, is(asList("a", "b")));
+        }
+
+        @Test
+        public void exact_modes_are_exact_in_parallel() {
+            assertThat(MoreStreams.distinctBy(IntStream.range(0, 200_000).boxed().parallel(), i -> i % 1000).count(),
+                       is(1000L));
+            assertThat(MoreStreams.distinctByInt(IntStream.range(0, 200_000).boxed().parallel(), i -> i % 1000).count(),
+                       is(1000L));
+            assertThat(MoreStreams.distinctByLong(IntStream.range(0, 200_000).boxed().parallel(), i -> i / 3 - 10L).count(),
+                       is(66_667L));
+        }
+
+        @Test(timeout = 10_000)
+        public void primitive_keys_stay_linear_for_a_million_distinct_keys() {
+            assertThat(MoreStreams.distinctByLong(LongStream.range(0, 1_000_000).boxed(), x -> x).count(),
+                       is(1_000_000L));
+            assertThat(MoreStreams.distinctByInt(IntStream.range(0, 1_000_000).boxed(), x -> x).count(),
+                       is(1_000_000L));
+        }
+
+        @Test
+        public void primitive_keys_keep_first_element_in_sequential() {
+            List<String> result = MoreStreams.distinctByInt(WORDS.stream(), String::length).collect(toList());
+            assertThat(result, is(asList("The", "quick", "over")));
+        }
+
+        @Test
+        public void adjacent_mode_drops_runs_lazily() {
+            List<Integer> result = MoreStreams.distinctAdjacentBy(Stream.iterate(0, i -> i + 1), i -> i / 10)
+                                              .limit(3)
+                                              .collect(toList());
+            assertThat(result, is(asList(0, 10, 20)));
+        }
+
+        @Test
+        public void recent_mode_forgets_old_keys() {
+            List<Integer> result = MoreStreams.distinctRecentlyBy(Stream.of(1, 2, 1, 3, 4, 1, 4), i -> i, 2)
+                                              .collect(toList());
+            assertThat(result.subList(0, 4), is(asList(1, 2, 3, 4)));
+            assertThat(result.size() >= 5, is(true));
+        }
+
+        @Test
+        public void approximate_mode_never_keeps_sequential_duplicates() {
+            long count = MoreStreams.distinctApproximatelyBy(IntStream.range(0, 100_000).boxed(), i -> i % 10_000, 10_000, 0.01)
+                                    .count();
+            assertThat(count <= 10_000L, is(true));
+            assertThat(count > 9_700L, is(true));
+        }
+
+        @Test
+        public void approximate_mode_cannot_tell_keys_with_equal_hash_codes_apart() {
+            List<String> result = MoreStreams.distinctApproximatelyBy(Stream.of("Aa", "BB"), s -> s, 10, 0.01)
+                                             .collect(toList());
+            assertThat(result, is(asList("Aa")));
+        }
+
+        @Test
+        public void approximate_mode_with_64_bit_hash_tells_keys_with_equal_hash_codes_apart() {
+            List<String> result = MoreStreams.distinctApproximatelyBy(Stream.of("Aa", "BB", "Aa"),
+                                                                      s -> s,
+                                                                      s -> s.chars().asLongStream().reduce(17, (h, c) -> h * 131 + c),
+                                                                      10,
+                                                                      0.01)
+                                             .collect(toList());
+            assertThat(result, is(asList("Aa", "BB")));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void approximate_mode_fail_fast_if_invalid_fpp_given() {
+            MoreStreams.distinctApproximatelyBy(Stream.of(1), i -> i, 10, 1.0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void recent_mode_fail_fast_if_0_given() {
+            MoreStreams.distinctRecentlyBy(Stream.of(1), i -> i, 0);
+        }
+    }
+
+    public static class ProcessBatches {
+        @Test
+        public void commits_results_in_source_order() {
+            List<Integer> sums;
+            try (Stream<Integer> results = MoreStreams.processBatches(IntStream.range(0, 1000).boxed(), 100, 4, batch -> {
+                sleepRandomly();
+                return batch.stream().mapToInt(Integer::intValue).sum();
+            })) {
+                sums = results.collect(toList());
+            }
+            assertThat(sums.size(), is(10));
+            assertThat(sums.get(0), is(4950));
+            assertThat(sums.get(9), is(94950));
+        }
+
+        @Test
+        public void unordered_mode_emits_every_batch() {
+            Set<Integer> firsts;
+            try (Stream<Integer> results = MoreStreams.processBatches(IntStream.range(0, 1005).boxed(), 100, 3, batch -> {
+                sleepRandomly();
+                return batch.get(0);
+            }, false)) {
+                firsts = results.collect(toSet());
+            }
+            assertThat(firsts, is(IntStream.range(0, 11).map(i -> i * 100).boxed().collect(toSet())));
+        }
+
+        @Test
+        public void recycles_batch_buffers() {
+            Set<List<Integer>> buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+            long count;
+            try (Stream<Integer> results = MoreStreams.processBatches(IntStream.range(0, 10_000).boxed(), 10, 2, batch -> {
+                synchronized (buffers) {
+                    buffers.add(batch);
+                }
+                return batch.size();
+            })) {
+                count = results.count();
+            }
+            assertThat(count, is(1000L));
+            assertThat(buffers.size() <= 5, is(true));
+        }
+
+        @Test
+        public void closing_closes_source() {
+            AtomicInteger closed = new AtomicInteger();
+            MoreStreams.processBatches(Stream.of(1, 2, 3).onClose(closed::incrementAndGet), 2, 1, List::size).close();
+            assertThat(closed.get(), is(1));
+        }
+
+        @Test
+        public void shuts_down_pool_once_exhausted_without_closing() throws InterruptedException {
+            Set<Thread> before = batchWorkers();
+            long count = MoreStreams.processBatches(IntStream.range(0, 1000).boxed(), 10, 3, List::size).count();
+            assertThat(count, is(100L));
+            assertThat(awaitNoBatchWorkersBut(before), is(true));
+        }
+
+        @Test
+        public void shuts_down_pool_once_handler_fails_without_closing() throws InterruptedException {
+            Set<Thread> before = batchWorkers();
+            try {
+                MoreStreams.processBatches(IntStream.range(0, 1000).boxed(), 10, 3, batch -> {
+                    if (batch.get(0) == 500) {
+                        throw new IllegalStateException("failed");
+                    }
+                    return batch.size();
+                }).forEach(size -> { });
+                throw new AssertionError("handler failure was swallowed");
+            } catch (IllegalStateException expected) {
+                assertThat(awaitNoBatchWorkersBut(before), is(true));
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void fail_fast_if_0_parallelism_given() {
+            MoreStreams.processBatches(Stream.of(1), 1, 0, List::size);
+        }
+
+        private static Set<Thread> batchWorkers() {
+            return Thread.getAllStackTraces()
+                         .keySet()
+                         .stream()
+                         .filter(t -> t.getName().startsWith("MoreStreams-processBatches-"))
+                         .collect(toSet());
+        }
+
+        private static boolean awaitNoBatchWorkersBut(final Set<Thread> before) throws InterruptedException {
+            for (int i = 0; i < 100; i++) {
+                Set<Thread> now = batchWorkers();
+                now.removeAll(before);
+                if (now.isEmpty()) {
+                    return true;
+                }
+                Thread.sleep(50);
+            }
+            return false;
+        }
+
+        private static void sleepRandomly() {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }